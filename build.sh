@@ -1,10 +1,21 @@
 #!/bin/bash
 
+# Pass --vector to also build the vector kernels (see src/ForceKernels.java), which
+# need a JDK with jdk.incubator.vector.
+
 SRC_DIR=src
+VECTOR_SRC_DIR=src-vector
 BUILD_DIR=build
 IMAGE_DIR=images
 
+SOURCES="$SRC_DIR/*.java"
+JAVAC_OPTIONS=""
+if [ "$1" == "--vector" ]; then
+  SOURCES="$SOURCES $VECTOR_SRC_DIR/*.java"
+  JAVAC_OPTIONS="--add-modules jdk.incubator.vector"
+fi
+
 mkdir -p $BUILD_DIR && \
 rm -f $BUILD_DIR/*.class $BUILD_DIR/*.jar && \
-javac -d $BUILD_DIR $SRC_DIR/*.java && \
+javac $JAVAC_OPTIONS -d $BUILD_DIR $SOURCES && \
 jar cfe $BUILD_DIR/TetherSim.jar TetherSim $IMAGE_DIR -C $BUILD_DIR .
@@ -0,0 +1,82 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// ForceKernels on the CPU's vector units, as many bodies at a time as its widest
+// vectors hold.  Lanes for inactive bodies are worked out like the rest, but
+// masked off when the results are stored.  The bodies after the last full vector
+// go through the scalar kernels.
+//
+// Built only by ./build.sh --vector, since it needs jdk.incubator.vector.
+class VectorForceKernels implements ForceKernels {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  public String name() {
+    return "vector x" + SPECIES.length();
+  }
+
+  public void pointMassGravity(BodyState s) {
+    int length = SPECIES.length();
+    int end = SPECIES.loopBound(s.count);
+
+    DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+    DoubleVector g = DoubleVector.broadcast(SPECIES, Simulation.G);
+    DoubleVector sourceX = DoubleVector.broadcast(SPECIES, s.sourceX);
+    DoubleVector sourceY = DoubleVector.broadcast(SPECIES, s.sourceY);
+    DoubleVector sourceMass = DoubleVector.broadcast(SPECIES, s.sourceMass);
+
+    for (int i = 0; i < end; i += length) {
+      VectorMask<Double> active = VectorMask.fromArray(SPECIES, s.active, i);
+      if (!active.anyTrue()) {
+        continue;
+      }
+
+      DoubleVector offsetX = sourceX.sub(DoubleVector.fromArray(SPECIES, s.x, i));
+      DoubleVector offsetY = sourceY.sub(DoubleVector.fromArray(SPECIES, s.y, i));
+      DoubleVector distanceSquared = offsetX.mul(offsetX).add(offsetY.mul(offsetY));
+      DoubleVector inverseDistance =
+          one.div(distanceSquared.lanewise(VectorOperators.SQRT));
+      DoubleVector forceMagnitude =
+          g.mul(DoubleVector.fromArray(SPECIES, s.mass, i)).mul(sourceMass).div(distanceSquared);
+
+      DoubleVector forceX = forceMagnitude.mul(inverseDistance.mul(offsetX));
+      DoubleVector forceY = forceMagnitude.mul(inverseDistance.mul(offsetY));
+
+      addInto(s.fx, i, forceX, active);
+      addInto(s.fy, i, forceY, active);
+      addInto(s.reactionX, i, forceX, active);
+      addInto(s.reactionY, i, forceY, active);
+    }
+
+    ScalarForceKernels.pointMassGravity(s, end, s.count);
+  }
+
+  public void accelerate(BodyState s, double secs) {
+    int length = SPECIES.length();
+    int end = SPECIES.loopBound(s.count);
+
+    DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+
+    for (int i = 0; i < end; i += length) {
+      VectorMask<Double> active = VectorMask.fromArray(SPECIES, s.active, i);
+      if (!active.anyTrue()) {
+        continue;
+      }
+
+      DoubleVector inverseMass = one.div(DoubleVector.fromArray(SPECIES, s.mass, i));
+      DoubleVector forceX = DoubleVector.fromArray(SPECIES, s.fx, i);
+      DoubleVector forceY = DoubleVector.fromArray(SPECIES, s.fy, i);
+
+      addInto(s.vx, i, forceX.mul(secs).mul(inverseMass), active);
+      addInto(s.vy, i, forceY.mul(secs).mul(inverseMass), active);
+    }
+
+    ScalarForceKernels.accelerate(s, secs, end, s.count);
+  }
+
+  private static void addInto(double[] array, int i, DoubleVector v, VectorMask<Double> mask) {
+    DoubleVector.fromArray(SPECIES, array, i).add(v, mask).intoArray(array, i);
+  }
+}
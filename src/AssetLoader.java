@@ -0,0 +1,95 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+// Decodes images in the background, several at a time, so that nothing has to wait
+// for them before it can start.  Each image is converted to the display's native
+// format once it's decoded, so that drawing it later doesn't need a conversion on
+// every frame.
+class AssetLoader {
+
+  private static final int PLACEHOLDER_SIZE = 64;
+
+  private ExecutorService executor =
+      Executors.newFixedThreadPool(
+          Runtime.getRuntime().availableProcessors(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "Asset Loader");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public AssetLoader() {
+    // The disk cache only slows decoding down when reading from a stream.
+    ImageIO.setUseCache(false);
+  }
+
+  public CompletableFuture<BufferedImage> load(String imageFile) {
+    return CompletableFuture.supplyAsync(
+        () -> toCompatibleImage(loadImageOrDie(imageFile)), executor);
+  }
+
+  // A plain disc to stand in for a body's image until the real one has loaded.
+  public static BufferedImage placeholder(Color color) {
+    BufferedImage image =
+        new BufferedImage(PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, BufferedImage.TYPE_INT_ARGB);
+
+    Graphics2D g = image.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setColor(color);
+    g.fillOval(0, 0, PLACEHOLDER_SIZE, PLACEHOLDER_SIZE);
+    g.dispose();
+
+    return image;
+  }
+
+  private BufferedImage loadImageOrDie(String imageFile) {
+    BufferedImage image = null;
+    try {
+      InputStream stream = getClass().getResourceAsStream(imageFile);
+      if (stream == null) {
+        System.err.println("cannot find image file: " + imageFile);
+        System.exit(1);
+      }
+      image = ImageIO.read(stream);
+    } catch (IOException exc) {
+      System.err.println("error loading image " + imageFile + ": " + exc.getMessage());
+      System.exit(1);
+    }
+
+    return image;
+  }
+
+  private static BufferedImage toCompatibleImage(BufferedImage image) {
+    if (GraphicsEnvironment.isHeadless()) {
+      return image;
+    }
+
+    GraphicsConfiguration config =
+        GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice()
+            .getDefaultConfiguration();
+    if (image.getColorModel().equals(config.getColorModel())) {
+      return image;
+    }
+
+    BufferedImage compatible =
+        config.createCompatibleImage(
+            image.getWidth(), image.getHeight(), image.getColorModel().getTransparency());
+
+    Graphics2D g = compatible.createGraphics();
+    g.drawImage(image, 0, 0, null);
+    g.dispose();
+
+    return compatible;
+  }
+}
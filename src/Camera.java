@@ -0,0 +1,133 @@
+// Decides which part of the world is in view: where the view is centered, how
+// much of the world fits across it, and optionally a body to keep in the middle.
+//
+// A camera isn't thread-safe.  It's meant to be driven from one thread, which
+// takes a View of it for every frame and can hand that View to any other thread.
+class Camera {
+
+  private double centerX = 0.0;
+  private double centerY = 0.0;
+
+  // How much of the world fits across the shorter side of the view.
+  private double viewWidth;
+
+  // Null unless following a body.
+  private PhysicsObject followed = null;
+
+  public Camera(double viewWidth) {
+    this.viewWidth = viewWidth;
+  }
+
+  public double viewWidth() {
+    return viewWidth;
+  }
+
+  public PhysicsObject followed() {
+    return followed;
+  }
+
+  // Keeps the given body in the middle of the view until the camera is panned,
+  // or stops following if the body is null.
+  public void follow(PhysicsObject po) {
+    followed = po;
+  }
+
+  public void centerOn(double x, double y) {
+    followed = null;
+    centerX = x;
+    centerY = y;
+  }
+
+  // Moves the view by the given number of pixels.
+  public void pan(double dxPixels, double dyPixels, int width, int height) {
+    View view = view(width, height);
+    centerOn(view.centerX - dxPixels / view.scale, view.centerY + dyPixels / view.scale);
+  }
+
+  // Zooms in by the given factor, or out if it's below 1, keeping the world point
+  // under the given pixel where it is.  While following, the followed body stays
+  // in the middle instead.
+  public void zoomAt(double factor, double screenX, double screenY, int width, int height) {
+    View before = view(width, height);
+    double worldX = before.worldX(screenX);
+    double worldY = before.worldY(screenY);
+
+    viewWidth /= factor;
+
+    if (followed == null) {
+      View after = view(width, height);
+      centerX += worldX - after.worldX(screenX);
+      centerY += worldY - after.worldY(screenY);
+    }
+  }
+
+  // Must be taken under the physics lock while following a body.
+  public View view(int width, int height) {
+    if (followed != null) {
+      centerX = followed.position().x();
+      centerY = followed.position().y();
+    }
+    return new View(centerX, centerY, Math.min(width, height) / viewWidth, width, height);
+  }
+
+  // A frozen camera position, with the mapping between world and screen.  The
+  // world's y axis points up, and the screen's points down.
+  static class View {
+    final double centerX;
+    final double centerY;
+    final double scale;
+    final int width;
+    final int height;
+
+    // The part of the world in view.
+    final double minX;
+    final double minY;
+    final double maxX;
+    final double maxY;
+
+    View(double centerX, double centerY, double scale, int width, int height) {
+      this.centerX = centerX;
+      this.centerY = centerY;
+      this.scale = scale;
+      this.width = width;
+      this.height = height;
+
+      minX = centerX - 0.5 * width / scale;
+      maxX = centerX + 0.5 * width / scale;
+      minY = centerY - 0.5 * height / scale;
+      maxY = centerY + 0.5 * height / scale;
+    }
+
+    double screenX(double worldX) {
+      return 0.5 * width + (worldX - centerX) * scale;
+    }
+
+    double screenY(double worldY) {
+      return 0.5 * height - (worldY - centerY) * scale;
+    }
+
+    double worldX(double screenX) {
+      return centerX + (screenX - 0.5 * width) / scale;
+    }
+
+    double worldY(double screenY) {
+      return centerY - (screenY - 0.5 * height) / scale;
+    }
+
+    boolean isCircleVisible(Vec2D center, double radius) {
+      return center.x() + radius >= minX
+          && center.x() - radius <= maxX
+          && center.y() + radius >= minY
+          && center.y() - radius <= maxY;
+    }
+
+    // Only the line's bounding box is checked, which is enough for short tether
+    // segments.
+    boolean isLineVisible(Vec2D p1, Vec2D p2) {
+      return Math.max(p1.x(), p2.x()) >= minX
+          && Math.min(p1.x(), p2.x()) <= maxX
+          && Math.max(p1.y(), p2.y()) >= minY
+          && Math.min(p1.y(), p2.y()) <= maxY;
+    }
+  }
+}
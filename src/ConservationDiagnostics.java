@@ -0,0 +1,374 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Tracks the quantities that the physics should conserve, plus the orbit of every
+// satellite.  Rather than making a pass of its own, it is handed each island as
+// its bodies are moved at the end of a tick, and the work done on them on the way.
+//
+// Drift is measured against the values seen on the first update, relative to the
+// sum of the magnitudes that went into them, so that a baseline close to 0 doesn't
+// make every change look huge.  Energy drift leaves out the work that the spool and
+// forces other than the source's point-mass gravity have done since then.  When a
+// drift crosses its threshold, or a body's state stops being finite, the listener
+// gets an event.  An event fires once when its threshold is crossed, and is
+// re-armed once the value comes back under the threshold.
+class ConservationDiagnostics {
+
+  public static final double DEFAULT_ENERGY_DRIFT_MAX = 0.05;
+  public static final double DEFAULT_MOMENTUM_DRIFT_MAX = 1e-6;
+  public static final double DEFAULT_ANGULAR_MOMENTUM_DRIFT_MAX = 1e-3;
+
+  private double energyDriftMax = DEFAULT_ENERGY_DRIFT_MAX;
+  private double momentumDriftMax = DEFAULT_MOMENTUM_DRIFT_MAX;
+  private double angularMomentumDriftMax = DEFAULT_ANGULAR_MOMENTUM_DRIFT_MAX;
+
+  private DiagnosticsListener listener = null;
+
+  private double momentumX;
+  private double momentumY;
+  private double angularMomentum;
+  private double kineticEnergy;
+  private double rotationalEnergy;
+  private double gravitationalEnergy;
+  private double externalWork;
+
+  // The sums of the magnitudes of every body's contribution.
+  private double momentumScale;
+  private double angularMomentumScale;
+
+  private boolean finite;
+
+  // Set for the duration of an update.
+  private PhysicsObject source;
+
+  private boolean haveBaseline = false;
+  private double baselineMomentumX;
+  private double baselineMomentumY;
+  private double baselineMomentumScale;
+  private double baselineAngularMomentum;
+  private double baselineAngularMomentumScale;
+  private double baselineEnergy;
+  private double baselineEnergyScale;
+
+  private boolean[] tripped = new boolean[DiagnosticEvent.Kind.values().length];
+
+  private List<OrbitalElements> orbits = new ArrayList<>();
+  private int orbitCount = 0;
+
+  public void setListener(DiagnosticsListener listener) {
+    this.listener = listener;
+  }
+
+  public void setEnergyDriftMax(double energyDriftMax) {
+    this.energyDriftMax = energyDriftMax;
+  }
+
+  public void setMomentumDriftMax(double momentumDriftMax) {
+    this.momentumDriftMax = momentumDriftMax;
+  }
+
+  public void setAngularMomentumDriftMax(double angularMomentumDriftMax) {
+    this.angularMomentumDriftMax = angularMomentumDriftMax;
+  }
+
+  public double momentumX() {
+    return momentumX;
+  }
+
+  public double momentumY() {
+    return momentumY;
+  }
+
+  // Angular momentum about the origin, including the bodies' spin.
+  public double angularMomentum() {
+    return angularMomentum;
+  }
+
+  public double kineticEnergy() {
+    return kineticEnergy;
+  }
+
+  public double rotationalEnergy() {
+    return rotationalEnergy;
+  }
+
+  public double gravitationalEnergy() {
+    return gravitationalEnergy;
+  }
+
+  public double totalEnergy() {
+    return kineticEnergy + rotationalEnergy + gravitationalEnergy;
+  }
+
+  // The work done on the bodies since the baseline by the spool, and by forces
+  // other than the source's point-mass gravity.
+  public double externalWork() {
+    return externalWork;
+  }
+
+  public int orbitCount() {
+    return orbitCount;
+  }
+
+  // The orbit of the i'th satellite as of the last update.  The returned object
+  // is reused by later updates.
+  public OrbitalElements orbit(int i) {
+    return orbits.get(i);
+  }
+
+  // The kinetic, rotational and gravitational energy of one body.
+  static double energy(PhysicsObject po, PhysicsObject source) {
+    double energy =
+        0.5 * po.mass() * po.velocity().lengthSquared()
+            + 0.5 * po.momentOfInertia() * po.angularSpeed() * po.angularSpeed();
+    if (po != source) {
+      energy -=
+          Simulation.G * po.mass() * source.mass() / po.position().distanceTo(source.position());
+    }
+    return energy;
+  }
+
+  // Called from the physics thread with work done on the bodies during a tick.
+  void addWork(double work) {
+    externalWork += work;
+  }
+
+  // Called once the source has moved, before any island is added.
+  void beginUpdate(PhysicsObject source) {
+    this.source = source;
+
+    momentumX = 0.0;
+    momentumY = 0.0;
+    angularMomentum = 0.0;
+    kineticEnergy = 0.0;
+    rotationalEnergy = 0.0;
+    gravitationalEnergy = 0.0;
+
+    momentumScale = 0.0;
+    angularMomentumScale = 0.0;
+    finite = true;
+
+    orbitCount = 0;
+  }
+
+  // Called with each island once its bodies have moved.
+  //
+  // Every island apart from the one holding the gravity source is a satellite.
+  // Its orbit is that of its barycenter around the source, treated as a two-body
+  // problem just as in analysis/orbit_analysis.txt.
+  void addIsland(Island island) {
+    double sourceX = source.position().x();
+    double sourceY = source.position().y();
+
+    boolean satellite = true;
+    double mass = 0.0;
+    double weightedX = 0.0;
+    double weightedY = 0.0;
+    double islandMomentumX = 0.0;
+    double islandMomentumY = 0.0;
+
+    for (PhysicsObject po : island.bodies) {
+      double m = po.mass();
+      double x = po.position().x();
+      double y = po.position().y();
+      double vx = po.velocity().x();
+      double vy = po.velocity().y();
+      double w = po.angularSpeed();
+
+      finite &= Double.isFinite(x + y + vx + vy + w + po.angleRad());
+
+      double speedSquared = vx * vx + vy * vy;
+      double orbitalAngularMomentum = m * (x * vy - y * vx);
+      double spin = po.momentOfInertia() * w;
+
+      islandMomentumX += m * vx;
+      islandMomentumY += m * vy;
+      momentumScale += m * Math.sqrt(speedSquared);
+      angularMomentum += orbitalAngularMomentum + spin;
+      angularMomentumScale += Math.abs(orbitalAngularMomentum) + Math.abs(spin);
+      kineticEnergy += 0.5 * m * speedSquared;
+      rotationalEnergy += 0.5 * spin * w;
+
+      if (po != source) {
+        double dx = x - sourceX;
+        double dy = y - sourceY;
+        gravitationalEnergy -= Simulation.G * m * source.mass() / Math.sqrt(dx * dx + dy * dy);
+      } else {
+        satellite = false;
+      }
+
+      mass += m;
+      weightedX += m * x;
+      weightedY += m * y;
+    }
+
+    momentumX += islandMomentumX;
+    momentumY += islandMomentumY;
+
+    if (!satellite) {
+      return;
+    }
+
+    if (orbitCount == orbits.size()) {
+      orbits.add(new OrbitalElements());
+    }
+    orbits
+        .get(orbitCount++)
+        .set(
+            mass,
+            weightedX / mass - sourceX,
+            weightedY / mass - sourceY,
+            islandMomentumX / mass - source.velocity().x(),
+            islandMomentumY / mass - source.velocity().y(),
+            Simulation.G * (source.mass() + mass));
+  }
+
+  // Called once every island has been added, to check the totals for drift.
+  void endUpdate(double elapsedSecs) {
+    source = null;
+
+    if (!finite) {
+      raise(DiagnosticEvent.Kind.NON_FINITE_STATE, elapsedSecs, Double.NaN, 0.0);
+      return;
+    }
+
+    if (!haveBaseline) {
+      haveBaseline = true;
+      baselineMomentumX = momentumX;
+      baselineMomentumY = momentumY;
+      baselineMomentumScale = momentumScale;
+      baselineAngularMomentum = angularMomentum;
+      baselineAngularMomentumScale = angularMomentumScale;
+      baselineEnergy = totalEnergy();
+      baselineEnergyScale = kineticEnergy + rotationalEnergy - gravitationalEnergy;
+      externalWork = 0.0;
+      return;
+    }
+
+    check(
+        DiagnosticEvent.Kind.MOMENTUM_DRIFT,
+        elapsedSecs,
+        drift(
+            Math.hypot(momentumX - baselineMomentumX, momentumY - baselineMomentumY),
+            baselineMomentumScale),
+        momentumDriftMax);
+    check(
+        DiagnosticEvent.Kind.ANGULAR_MOMENTUM_DRIFT,
+        elapsedSecs,
+        drift(angularMomentum - baselineAngularMomentum, baselineAngularMomentumScale),
+        angularMomentumDriftMax);
+    check(
+        DiagnosticEvent.Kind.ENERGY_DRIFT,
+        elapsedSecs,
+        drift(totalEnergy() - externalWork - baselineEnergy, baselineEnergyScale),
+        energyDriftMax);
+  }
+
+  // A change relative to a scale.  If everything started out at rest, any change
+  // at all is infinite drift.
+  private static double drift(double change, double scale) {
+    if (scale > 0.0) {
+      return Math.abs(change) / scale;
+    }
+    return change == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+  }
+
+  private void check(DiagnosticEvent.Kind kind, double elapsedSecs, double value, double max) {
+    if (!(value <= max)) {
+      raise(kind, elapsedSecs, value, max);
+    } else {
+      tripped[kind.ordinal()] = false;
+    }
+  }
+
+  private void raise(DiagnosticEvent.Kind kind, double elapsedSecs, double value, double max) {
+    if (tripped[kind.ordinal()]) {
+      return;
+    }
+    tripped[kind.ordinal()] = true;
+
+    if (listener != null) {
+      listener.onDiagnosticEvent(new DiagnosticEvent(kind, elapsedSecs, value, max));
+    }
+  }
+}
+
+// The two-body orbit of a satellite's barycenter relative to the gravity source.
+class OrbitalElements {
+  double mass;
+  double x;
+  double y;
+  double vx;
+  double vy;
+
+  double semiMajorAxis;
+  double eccentricity;
+  double argumentOfPeriapsisRad;
+  double periodSecs;
+
+  void set(double mass, double x, double y, double vx, double vy, double mu) {
+    this.mass = mass;
+    this.x = x;
+    this.y = y;
+    this.vx = vx;
+    this.vy = vy;
+
+    double r = Math.sqrt(x * x + y * y);
+    double speedSquared = vx * vx + vy * vy;
+    double rDotV = x * vx + y * vy;
+
+    double specificEnergy = 0.5 * speedSquared - mu / r;
+    semiMajorAxis = -mu / (2.0 * specificEnergy);
+
+    double ex = ((speedSquared - mu / r) * x - rDotV * vx) / mu;
+    double ey = ((speedSquared - mu / r) * y - rDotV * vy) / mu;
+    eccentricity = Math.sqrt(ex * ex + ey * ey);
+    argumentOfPeriapsisRad = Math.atan2(ey, ex);
+
+    periodSecs =
+        semiMajorAxis > 0.0
+            ? 2.0 * Math.PI * Math.sqrt(semiMajorAxis * semiMajorAxis * semiMajorAxis / mu)
+            : Double.POSITIVE_INFINITY;
+  }
+
+  public String toString() {
+    return "OrbitalElements { a="
+        + semiMajorAxis
+        + ", e="
+        + eccentricity
+        + ", argp="
+        + argumentOfPeriapsisRad
+        + ", period="
+        + periodSecs
+        + " }";
+  }
+}
+
+class DiagnosticEvent {
+  enum Kind {
+    NON_FINITE_STATE,
+    MOMENTUM_DRIFT,
+    ANGULAR_MOMENTUM_DRIFT,
+    ENERGY_DRIFT,
+  }
+
+  final Kind kind;
+  final double elapsedSecs;
+  final double value;
+  final double threshold;
+
+  DiagnosticEvent(Kind kind, double elapsedSecs, double value, double threshold) {
+    this.kind = kind;
+    this.elapsedSecs = elapsedSecs;
+    this.value = value;
+    this.threshold = threshold;
+  }
+
+  public String toString() {
+    return kind + " at t=" + elapsedSecs + ": " + value + " (threshold " + threshold + ")";
+  }
+}
+
+interface DiagnosticsListener {
+  void onDiagnosticEvent(DiagnosticEvent event);
+}
@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures how many bodies per second one core can push through the force
+// pipeline, for debris fields of 1k to 1M bodies around the Earth, with the
+// scalar kernels and, if they load, the vector ones.  See ForceKernels.
+//
+// Usage:
+//   ./build.sh --vector
+//   java --add-modules jdk.incubator.vector -cp build/TetherSim.jar ForceBenchmark
+//
+// Options:
+//   --secs SECS    how long to time each case for (default: 1)
+//
+// "kernels" times just the gravity and velocity loops over gathered state, and
+// "pipeline" the whole of ForcePipeline.apply, which also gathers the bodies into
+// flat arrays and writes their new velocities back.
+class ForceBenchmark {
+
+  private static final int[] BODY_COUNTS = {1_000, 10_000, 100_000, 1_000_000};
+
+  private static final double TICK_SECS = 1.0 / 60.0;
+
+  private static double timedSecs = 1.0;
+
+  private static double checksum = 0.0;
+
+  public static void main(String[] args) {
+    if (args.length == 2 && args[0].equals("--secs")) {
+      timedSecs = Double.parseDouble(args[1]);
+    } else if (args.length != 0) {
+      System.err.println("usage: ForceBenchmark [--secs SECS]");
+      System.exit(2);
+    }
+
+    List<ForceKernels> allKernels = new ArrayList<>();
+    allKernels.add(new ScalarForceKernels());
+    ForceKernels vector = ForceKernels.vector();
+    if (vector != null) {
+      allKernels.add(vector);
+    } else {
+      System.err.println(
+          "vector kernels unavailable; build with ./build.sh --vector"
+              + " and run with --add-modules jdk.incubator.vector");
+    }
+
+    System.out.println("bodies,kernels,kernel_mbodies_per_sec,pipeline_mbodies_per_sec");
+    for (int count : BODY_COUNTS) {
+      PhysicsObject earth = earth();
+      List<PhysicsObject> bodies = debrisField(earth, count);
+
+      for (ForceKernels kernels : allKernels) {
+        System.out.println(
+            count
+                + ","
+                + kernels.name()
+                + ","
+                + String.format("%.1f", timeKernels(kernels, bodies, earth) / 1e6)
+                + ","
+                + String.format("%.1f", timePipeline(kernels, bodies, earth) / 1e6));
+      }
+
+      if (vector != null && !sameResults(vector, bodies, earth)) {
+        System.err.println(count + " bodies: vector kernels differ from scalar ones");
+        System.exit(1);
+      }
+    }
+
+    // So that the JIT can't drop the work.
+    System.err.println("checksum " + checksum);
+  }
+
+  // Bodies per second.
+  private static double timeKernels(
+      ForceKernels kernels, List<PhysicsObject> bodies, PhysicsObject earth) {
+    BodyState state = new BodyState();
+    state.gather(bodies, earth);
+
+    return time(
+        bodies.size(),
+        () -> {
+          kernels.pointMassGravity(state);
+          kernels.accelerate(state, TICK_SECS);
+        },
+        () -> checksum += state.vx[0]);
+  }
+
+  // Bodies per second.
+  private static double timePipeline(
+      ForceKernels kernels, List<PhysicsObject> bodies, PhysicsObject earth) {
+    ForcePipeline pipeline = new ForcePipeline(kernels);
+    GravitySource source = new GravitySource(earth);
+
+    return time(
+        bodies.size(),
+        () -> pipeline.apply(bodies, source, TICK_SECS),
+        () -> checksum += bodies.get(0).velocity().x());
+  }
+
+  // Runs the step for a warm-up period and then for the timed period, and returns
+  // how many bodies per second it got through.
+  private static double time(int bodyCount, Runnable step, Runnable consume) {
+    for (long end = System.nanoTime() + (long) (0.5e9 * timedSecs); System.nanoTime() < end; ) {
+      step.run();
+    }
+
+    long steps = 0;
+    long start = System.nanoTime();
+    long end = start + (long) (1e9 * timedSecs);
+    long now;
+    do {
+      step.run();
+      steps++;
+      now = System.nanoTime();
+    } while (now < end);
+    consume.run();
+
+    return (double) steps * bodyCount / ((now - start) / 1e9);
+  }
+
+  private static boolean sameResults(
+      ForceKernels vector, List<PhysicsObject> bodies, PhysicsObject earth) {
+    BodyState scalarState = new BodyState();
+    scalarState.gather(bodies, earth);
+    ForceKernels scalar = new ScalarForceKernels();
+    scalar.pointMassGravity(scalarState);
+    scalar.accelerate(scalarState, TICK_SECS);
+
+    BodyState vectorState = new BodyState();
+    vectorState.gather(bodies, earth);
+    vector.pointMassGravity(vectorState);
+    vector.accelerate(vectorState, TICK_SECS);
+
+    for (int i = 0; i < bodies.size(); i++) {
+      if (Double.doubleToLongBits(scalarState.vx[i]) != Double.doubleToLongBits(vectorState.vx[i])
+          || Double.doubleToLongBits(scalarState.vy[i])
+              != Double.doubleToLongBits(vectorState.vy[i])
+          || Double.doubleToLongBits(scalarState.reactionX[i])
+              != Double.doubleToLongBits(vectorState.reactionX[i])
+          || Double.doubleToLongBits(scalarState.reactionY[i])
+              != Double.doubleToLongBits(vectorState.reactionY[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static PhysicsObject earth() {
+    return new PhysicsObjectBuilder().mass(1e11).radius(6371.0).momentOfInertia(1.0).build();
+  }
+
+  // Small bodies on circular orbits at random heights and phases.  The Earth comes
+  // first, as it does in the canonical scene, so that it is skipped like it is there.
+  private static List<PhysicsObject> debrisField(PhysicsObject earth, int count) {
+    Random random = new Random(count);
+    List<PhysicsObject> bodies = new ArrayList<>(count + 1);
+    bodies.add(earth);
+
+    for (int i = 0; i < count; i++) {
+      double distance = earth.radius() * (1.1 + random.nextDouble());
+      double angle = 2.0 * Math.PI * random.nextDouble();
+      double speed = Math.sqrt(Simulation.G * earth.mass() / distance);
+      bodies.add(
+          new PhysicsObjectBuilder()
+              .position(new Vec2D(distance * Math.cos(angle), distance * Math.sin(angle)))
+              .velocity(new Vec2D(-speed * Math.sin(angle), speed * Math.cos(angle)))
+              .mass(1.0 + random.nextDouble())
+              .radius(1.0)
+              .momentOfInertia(1.0)
+              .build());
+    }
+
+    return bodies;
+  }
+}
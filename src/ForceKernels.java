@@ -0,0 +1,95 @@
+// The per-body inner loops of the force pipeline, over the gathered body state.
+//
+// There are two implementations: a scalar one, which always works, and one in
+// src-vector that runs several bodies at a time on the CPU's vector units through
+// the incubating Vector API.  The vector one is only there when the build was run
+// with --vector, and only works when the JVM was started with
+//   --add-modules jdk.incubator.vector
+// so it is looked up by name and dropped for the scalar one if it won't load.
+// Setting the property tethersim.vector=false forces the scalar one.
+//
+// Both give bit-for-bit the same results: they do the same exactly rounded
+// operations in the same order, just on several lanes at once.
+interface ForceKernels {
+
+  String VECTOR_KERNELS_CLASS = "VectorForceKernels";
+
+  String name();
+
+  // Adds the source's point-mass gravity on each active body to its force, and to
+  // its reaction.
+  void pointMassGravity(BodyState s);
+
+  // Adds each active body's force over the tick to its velocity.
+  void accelerate(BodyState s, double secs);
+
+  static ForceKernels best() {
+    if (!Boolean.parseBoolean(System.getProperty("tethersim.vector", "true"))) {
+      return new ScalarForceKernels();
+    }
+    ForceKernels vector = vector();
+    return vector != null ? vector : new ScalarForceKernels();
+  }
+
+  // Null if the vector kernels weren't built or the JVM can't run them.
+  static ForceKernels vector() {
+    try {
+      return (ForceKernels)
+          Class.forName(VECTOR_KERNELS_CLASS).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError exc) {
+      return null;
+    }
+  }
+}
+
+class ScalarForceKernels implements ForceKernels {
+
+  public String name() {
+    return "scalar";
+  }
+
+  public void pointMassGravity(BodyState s) {
+    pointMassGravity(s, 0, s.count);
+  }
+
+  public void accelerate(BodyState s, double secs) {
+    accelerate(s, secs, 0, s.count);
+  }
+
+  // These take a range of bodies, so that the vector kernels can use them for
+  // whatever is left over after their last full vector.
+
+  static void pointMassGravity(BodyState s, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!s.active[i]) {
+        continue;
+      }
+
+      double offsetX = s.sourceX - s.x[i];
+      double offsetY = s.sourceY - s.y[i];
+      double distanceSquared = offsetX * offsetX + offsetY * offsetY;
+      double inverseDistance = 1.0 / Math.sqrt(distanceSquared);
+      double forceMagnitude = Simulation.G * s.mass[i] * s.sourceMass / distanceSquared;
+
+      double forceX = forceMagnitude * (inverseDistance * offsetX);
+      double forceY = forceMagnitude * (inverseDistance * offsetY);
+
+      s.fx[i] += forceX;
+      s.fy[i] += forceY;
+      s.reactionX[i] += forceX;
+      s.reactionY[i] += forceY;
+    }
+  }
+
+  static void accelerate(BodyState s, double secs, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!s.active[i]) {
+        continue;
+      }
+
+      double inverseMass = 1.0 / s.mass[i];
+      s.vx[i] += s.fx[i] * secs * inverseMass;
+      s.vy[i] += s.fy[i] * secs * inverseMass;
+    }
+  }
+}
@@ -0,0 +1,240 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Something that pushes on bodies, such as gravity or drag.  Every module works
+// relative to the gravity source, since that's what the world is built around.
+//
+// A module makes one pass over the gathered body state, adding its force on each
+// active body to fx and fy, and adding to reactionX and reactionY whatever part of
+// that force the source should feel in reverse.  It must not allocate.
+interface ForceModule {
+  void addForces(BodyState state);
+}
+
+// Body state gathered into flat arrays once per tick, so that each force module
+// can run through it in a single pass without chasing references.
+class BodyState {
+
+  int count = 0;
+
+  double[] x = new double[0];
+  double[] y = new double[0];
+  double[] vx = new double[0];
+  double[] vy = new double[0];
+  double[] mass = new double[0];
+  double[] radius = new double[0];
+
+  // Tether pieces stand for a stretch of thin tether, so their radius is only
+  // there to keep them from overlapping other bodies.
+  boolean[] tetherPiece = new boolean[0];
+
+  // Bodies that don't feel forces this tick: the source itself, and any coasting
+  // body, which follows its Kepler orbit instead.
+  boolean[] active = new boolean[0];
+
+  double[] fx = new double[0];
+  double[] fy = new double[0];
+  double[] reactionX = new double[0];
+  double[] reactionY = new double[0];
+
+  double sourceX;
+  double sourceY;
+  double sourceVx;
+  double sourceVy;
+  double sourceMass;
+  double sourceRadius;
+  double sourceAngularSpeed;
+
+  void gather(List<PhysicsObject> bodies, PhysicsObject source) {
+    count = bodies.size();
+    if (x.length < count) {
+      allocate(Math.max(count, 2 * x.length));
+    }
+
+    for (int i = 0; i < count; i++) {
+      PhysicsObject po = bodies.get(i);
+      x[i] = po.position().x();
+      y[i] = po.position().y();
+      vx[i] = po.velocity().x();
+      vy[i] = po.velocity().y();
+      mass[i] = po.mass();
+      radius[i] = po.radius();
+      tetherPiece[i] = po.tetherPiece;
+      active[i] = po != source && !po.coasting;
+      fx[i] = 0.0;
+      fy[i] = 0.0;
+      reactionX[i] = 0.0;
+      reactionY[i] = 0.0;
+    }
+
+    sourceX = source.position().x();
+    sourceY = source.position().y();
+    sourceVx = source.velocity().x();
+    sourceVy = source.velocity().y();
+    sourceMass = source.mass();
+    sourceRadius = source.radius();
+    sourceAngularSpeed = source.angularSpeed();
+  }
+
+  private void allocate(int capacity) {
+    x = new double[capacity];
+    y = new double[capacity];
+    vx = new double[capacity];
+    vy = new double[capacity];
+    mass = new double[capacity];
+    radius = new double[capacity];
+    tetherPiece = new boolean[capacity];
+    active = new boolean[capacity];
+    fx = new double[capacity];
+    fy = new double[capacity];
+    reactionX = new double[capacity];
+    reactionY = new double[capacity];
+  }
+}
+
+// Runs every force module over the bodies, then turns the total force on each body
+// into a change of velocity for this tick.  Point-mass gravity always comes first;
+// other modules run in the order they were added.
+class ForcePipeline {
+
+  private final List<ForceModule> modules = new ArrayList<>();
+  private final BodyState state = new BodyState();
+  private final ForceKernels kernels;
+
+  // The forces after point-mass gravity alone, kept while there are perturbations
+  // so that the work they do can be told apart.
+  private double[] gravityFx = new double[0];
+  private double[] gravityFy = new double[0];
+  private double gravityReactionX;
+  private double gravityReactionY;
+
+  private double perturbationWork = 0.0;
+
+  ForcePipeline() {
+    this(ForceKernels.best());
+  }
+
+  ForcePipeline(ForceKernels kernels) {
+    this.kernels = kernels;
+    modules.add(new PointMassGravity(kernels));
+  }
+
+  ForceKernels kernels() {
+    return kernels;
+  }
+
+  void add(ForceModule module) {
+    modules.add(module);
+  }
+
+  // Whether anything other than point-mass gravity is acting.
+  boolean hasPerturbations() {
+    return modules.size() > 1;
+  }
+
+  // The work that forces other than point-mass gravity did on the bodies and the
+  // source during the last apply.
+  double perturbationWork() {
+    return perturbationWork;
+  }
+
+  void apply(List<PhysicsObject> bodies, GravitySource gravitySource, double secs) {
+    PhysicsObject source = gravitySource.physicsObject();
+    state.gather(bodies, source);
+
+    modules.get(0).addForces(state);
+    if (hasPerturbations()) {
+      keepGravityForces();
+      for (int m = 1; m < modules.size(); m++) {
+        modules.get(m).addForces(state);
+      }
+      perturbationWork = perturbationWork(secs);
+    } else {
+      perturbationWork = 0.0;
+    }
+
+    kernels.accelerate(state, secs);
+
+    // The source's reactions are added up body by body, in body order, which keeps
+    // the result the same from run to run.
+    double sourceVx = state.sourceVx;
+    double sourceVy = state.sourceVy;
+    double sourceInverseMass = 1.0 / state.sourceMass;
+
+    for (int i = 0; i < state.count; i++) {
+      if (!state.active[i]) {
+        continue;
+      }
+
+      bodies.get(i).velocity = new Vec2D(state.vx[i], state.vy[i]);
+
+      sourceVx += -state.reactionX[i] * secs * sourceInverseMass;
+      sourceVy += -state.reactionY[i] * secs * sourceInverseMass;
+    }
+
+    source.velocity = new Vec2D(sourceVx, sourceVy);
+  }
+
+  private void keepGravityForces() {
+    if (gravityFx.length < state.count) {
+      gravityFx = new double[state.fx.length];
+      gravityFy = new double[state.fx.length];
+    }
+    System.arraycopy(state.fx, 0, gravityFx, 0, state.count);
+    System.arraycopy(state.fy, 0, gravityFy, 0, state.count);
+
+    gravityReactionX = 0.0;
+    gravityReactionY = 0.0;
+    for (int i = 0; i < state.count; i++) {
+      gravityReactionX += state.reactionX[i];
+      gravityReactionY += state.reactionY[i];
+    }
+  }
+
+  // The work done by an impulse is the impulse times the average of the velocities
+  // before and after it, and the velocities after are known from the total forces.
+  private double perturbationWork(double secs) {
+    double work = 0.0;
+    double reactionX = 0.0;
+    double reactionY = 0.0;
+
+    for (int i = 0; i < state.count; i++) {
+      reactionX += state.reactionX[i];
+      reactionY += state.reactionY[i];
+      if (!state.active[i]) {
+        continue;
+      }
+
+      double halfSecsOverMass = 0.5 * secs / state.mass[i];
+      work +=
+          secs
+              * ((state.fx[i] - gravityFx[i]) * (state.vx[i] + state.fx[i] * halfSecsOverMass)
+                  + (state.fy[i] - gravityFy[i])
+                      * (state.vy[i] + state.fy[i] * halfSecsOverMass));
+    }
+
+    double halfSecsOverSourceMass = 0.5 * secs / state.sourceMass;
+    work -=
+        secs
+            * ((reactionX - gravityReactionX)
+                    * (state.sourceVx - reactionX * halfSecsOverSourceMass)
+                + (reactionY - gravityReactionY)
+                    * (state.sourceVy - reactionY * halfSecsOverSourceMass));
+
+    return work;
+  }
+}
+
+// The source's gravity, as if all of its mass were at its center.
+class PointMassGravity implements ForceModule {
+
+  private final ForceKernels kernels;
+
+  PointMassGravity(ForceKernels kernels) {
+    this.kernels = kernels;
+  }
+
+  public void addForces(BodyState s) {
+    kernels.pointMassGravity(s);
+  }
+}
@@ -0,0 +1,254 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+// Runs the canonical scene headless, at a fixed tick length, and renders it to a
+// numbered sequence of PNG frames that can be turned into a video.
+//
+// The simulation itself runs on the main thread.  Every frame interval it takes a
+// snapshot of the bodies and hands it to a pool of workers, which draw and encode
+// frames in parallel.  The pool's queue is bounded, so when the workers fall
+// behind the main thread renders a frame itself rather than piling up snapshots.
+// If any frame fails to render or write, the export stops with an error.
+//
+// Usage:
+//   java -cp build/TetherSim.jar FrameExporter [options]
+//
+// Options:
+//   --out DIR                 where to write the frames (default: frames)
+//   --duration SECS           how much simulated time to export (default: 60)
+//   --frame-secs SECS         simulated time between frames (default: 1/30)
+//   --tick-secs SECS          simulated time per tick (default: 1/60)
+//   --width PIXELS            frame width (default: 1000)
+//   --height PIXELS           frame height (default: 1000)
+//   --view-width METERS       how much of the world fits across the frame
+//                             (default: as in the window)
+//   --follow INDEX            keep the body with the given index in the middle
+//   --command SECS:STATE      set the tether to RETRACTING, HOLDING or EXTENDING
+//                             at the given time; may be repeated
+class FrameExporter {
+
+  private static final String DEFAULT_OUT_DIR = "frames";
+
+  private static Path outDir = Paths.get(DEFAULT_OUT_DIR);
+  private static double durationSecs = 60.0;
+  private static double frameSecs = 1.0 / 30.0;
+  private static double tickSecs = 1.0 / 60.0;
+  private static int width = 1000;
+  private static int height = 1000;
+  private static double viewWidth = TetherSim.SPACE_VIEW_WIDTH;
+  private static int followIndex = -1;
+  private static List<Double> commandTimes = new ArrayList<>();
+  private static List<TetherState> commands = new ArrayList<>();
+
+  public static void main(String[] args) throws Exception {
+    System.setProperty("java.awt.headless", "true");
+
+    if (!parseOptions(args)) {
+      System.err.println("usage: FrameExporter [options]");
+      System.exit(2);
+    }
+
+    Files.createDirectories(outDir);
+
+    AssetLoader loader = new AssetLoader();
+    SimRenderer renderer =
+        new SimRenderer(loader.load(TetherSim.BACKGROUND_IMAGE_FILE).join());
+    Simulation sim =
+        Scenes.orbitingTetheredSatellite(
+            loader.load(TetherSim.EARTH_IMAGE_FILE).join(),
+            loader.load(TetherSim.MAIN_SATELLITE_IMAGE_FILE).join(),
+            loader.load(TetherSim.SECONDARY_SATELLITE_IMAGE_FILE).join());
+    sim.setTetherBreakListener(tetherBreak -> System.err.println(tetherBreak));
+
+    Camera camera = new Camera(viewWidth);
+    if (followIndex >= sim.physicsObjects().size()) {
+      System.err.println("no body with index " + followIndex);
+      System.exit(2);
+    }
+    if (followIndex >= 0) {
+      camera.follow(sim.physicsObjects().get(followIndex));
+    }
+
+    int workerCount = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor workers =
+        new ThreadPoolExecutor(
+            workerCount,
+            workerCount,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(2 * workerCount),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // Each thread draws into its own image, over and over.
+    ThreadLocal<BufferedImage> frameImages =
+        ThreadLocal.withInitial(() -> new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+
+    long startTimeMillis = System.currentTimeMillis();
+
+    int tickCount = (int) Math.round(durationSecs / tickSecs);
+    int nextCommand = 0;
+    int frameCount = 0;
+    double nextFrameSecs = 0.0;
+
+    // The frames handed to the workers, oldest first, that haven't been checked yet.
+    Deque<Future<?>> frames = new ArrayDeque<>();
+
+    for (int tick = 0; tick <= tickCount; tick++) {
+      if (sim.elapsedSecs() >= nextFrameSecs - 0.5 * tickSecs) {
+        List<PhysicsObject> snapshot = snapshot(sim.physicsObjects());
+        TetherTable tethers = sim.tetherTable().copy();
+        Camera.View view = camera.view(width, height);
+        Path file = outDir.resolve(String.format("frame-%06d.png", frameCount++));
+        frames.add(
+            workers.submit(
+                () -> renderFrame(renderer, view, frameImages.get(), snapshot, tethers, file)));
+        nextFrameSecs += frameSecs;
+
+        while (!frames.isEmpty() && frames.peek().isDone()) {
+          checkFrame(frames.poll(), workers);
+        }
+      }
+
+      if (tick == tickCount) {
+        break;
+      }
+
+      while (nextCommand < commands.size()
+          && commandTimes.get(nextCommand) <= sim.elapsedSecs()) {
+        sim.setTetherState(commands.get(nextCommand));
+        nextCommand++;
+      }
+
+      sim.tick(tickSecs);
+    }
+
+    workers.shutdown();
+    while (!frames.isEmpty()) {
+      checkFrame(frames.poll(), workers);
+    }
+
+    System.out.println(
+        "exported "
+            + frameCount
+            + " frames to "
+            + outDir
+            + " in "
+            + (System.currentTimeMillis() - startTimeMillis)
+            + " ms");
+  }
+
+  // Waits for a frame, and exits if it failed.
+  private static void checkFrame(Future<?> frame, ThreadPoolExecutor workers)
+      throws InterruptedException {
+    try {
+      frame.get();
+    } catch (ExecutionException exc) {
+      System.err.println("failed to export frame: " + exc.getCause());
+      workers.shutdownNow();
+      System.exit(1);
+    }
+  }
+
+  private static boolean parseOptions(String[] args) {
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if (i + 1 == args.length) {
+          return false;
+        }
+        String value = args[++i];
+
+        switch (args[i - 1]) {
+          case "--out":
+            outDir = Paths.get(value);
+            break;
+          case "--duration":
+            durationSecs = Double.parseDouble(value);
+            break;
+          case "--frame-secs":
+            frameSecs = Double.parseDouble(value);
+            break;
+          case "--tick-secs":
+            tickSecs = Double.parseDouble(value);
+            break;
+          case "--width":
+            width = Integer.parseInt(value);
+            break;
+          case "--height":
+            height = Integer.parseInt(value);
+            break;
+          case "--view-width":
+            viewWidth = Double.parseDouble(value);
+            break;
+          case "--follow":
+            followIndex = Integer.parseInt(value);
+            break;
+          case "--command":
+            int colon = value.indexOf(':');
+            if (colon < 0) {
+              return false;
+            }
+            commandTimes.add(Double.parseDouble(value.substring(0, colon)));
+            commands.add(TetherState.valueOf(value.substring(colon + 1)));
+            break;
+          default:
+            return false;
+        }
+      }
+    } catch (IllegalArgumentException exc) {
+      return false;
+    }
+    return frameSecs > 0.0 && tickSecs > 0.0 && width > 0 && height > 0 && viewWidth > 0.0;
+  }
+
+  // Copies what the renderer needs from every body, so that the simulation can
+  // carry on while the frame is drawn.  The tether table refers to bodies by
+  // index, so a copy of it goes with the copied bodies as it is.
+  private static List<PhysicsObject> snapshot(List<PhysicsObject> physicsObjects) {
+    List<PhysicsObject> snapshot = new ArrayList<>(physicsObjects.size());
+
+    for (PhysicsObject po : physicsObjects) {
+      PhysicsObject copy = new PhysicsObject();
+      copy.position = po.position;
+      copy.angleRad = po.angleRad;
+      copy.radius = po.radius;
+      copy.image = po.image;
+      snapshot.add(copy);
+    }
+
+    return snapshot;
+  }
+
+  private static void renderFrame(
+      SimRenderer renderer,
+      Camera.View view,
+      BufferedImage image,
+      List<PhysicsObject> snapshot,
+      TetherTable tethers,
+      Path file) {
+    Graphics2D g = image.createGraphics();
+    renderer.drawBackground(g, width, height);
+    renderer.drawPhysicsObjects(g, view, snapshot, tethers);
+    g.dispose();
+
+    try {
+      ImageIO.write(image, "png", file.toFile());
+    } catch (IOException exc) {
+      throw new UncheckedIOException(exc);
+    }
+  }
+}
@@ -0,0 +1,305 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Records reference trajectories for the canonical scenes, and checks the engine
+// against them.  Every scene is run with a fixed tick length, so that a run can
+// only differ from its reference if the engine itself has changed.
+//
+// Usage:
+//   java -cp build/TetherSim.jar GoldenTrajectoryHarness record [options]
+//   java -cp build/TetherSim.jar GoldenTrajectoryHarness verify [options]
+//
+// Options:
+//   --dir DIR                     where the references live (default: golden)
+//   --kepler-coasting             run the engine with Kepler coasting enabled
+//   --absolute-tolerance X        override the absolute tolerance
+//   --relative-tolerance X        override the relative tolerance
+//
+// References should always be recorded with the exact engine; the options for
+// faster engines exist to diff them against those references.
+class GoldenTrajectoryHarness {
+
+  private static final String DEFAULT_GOLDEN_DIR = "golden";
+
+  private static final double TICK_SECS = 1.0 / 60.0;
+  private static final int TICKS_PER_SAMPLE = 60;
+
+  // A value matches its reference if it is within
+  // absoluteTolerance + relativeTolerance * |reference|.
+  private static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-6;
+  private static final double DEFAULT_RELATIVE_TOLERANCE = 1e-9;
+
+  private static Path dir = Paths.get(DEFAULT_GOLDEN_DIR);
+  private static boolean keplerCoasting = false;
+  private static double absoluteTolerance = DEFAULT_ABSOLUTE_TOLERANCE;
+  private static double relativeTolerance = DEFAULT_RELATIVE_TOLERANCE;
+
+  // How many ticks of the last run had a satellite coasting.
+  private static int coastingTicks;
+
+  private static final int VALUES_PER_BODY = 6;
+
+  // A scene with its tether made of some material, plus a script of tether commands
+  // to give it over time.
+  private static class Scenario {
+    final String name;
+    final TetherMaterial material;
+    final double durationSecs;
+    final double[] commandTimes;
+    final TetherState[] commands;
+
+    Scenario(String name, double durationSecs, double[] commandTimes, TetherState[] commands) {
+      this(name, TetherMaterial.INEXTENSIBLE, durationSecs, commandTimes, commands);
+    }
+
+    Scenario(
+        String name,
+        TetherMaterial material,
+        double durationSecs,
+        double[] commandTimes,
+        TetherState[] commands) {
+      this.name = name;
+      this.material = material;
+      this.durationSecs = durationSecs;
+      this.commandTimes = commandTimes;
+      this.commands = commands;
+    }
+  }
+
+  private static final Scenario[] SCENARIOS = {
+    new Scenario(
+        "orbiting-tethered-satellite-hold", 120.0, new double[] {}, new TetherState[] {}),
+    new Scenario(
+        "orbiting-tethered-satellite-extend",
+        120.0,
+        new double[] {0.0, 20.0},
+        new TetherState[] {TetherState.EXTENDING, TetherState.HOLDING}),
+    new Scenario(
+        "orbiting-tethered-satellite-extend-retract",
+        120.0,
+        new double[] {0.0, 10.0, 20.0},
+        new TetherState[] {TetherState.EXTENDING, TetherState.HOLDING, TetherState.RETRACTING}),
+    // An elastic tether that snaps as it is reeled back in.
+    new Scenario(
+        "orbiting-tethered-satellite-retract-break",
+        new TetherMaterial(1e5, 1e3, 1e6),
+        120.0,
+        new double[] {0.0, 10.0, 20.0},
+        new TetherState[] {TetherState.EXTENDING, TetherState.HOLDING, TetherState.RETRACTING}),
+    // A damped elastic tether that is held taut, which Kepler coasting takes over
+    // almost at once.
+    new Scenario(
+        "orbiting-tethered-satellite-hold-damped",
+        new TetherMaterial(1e5, 1e4, Double.POSITIVE_INFINITY),
+        600.0,
+        new double[] {},
+        new TetherState[] {}),
+  };
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1
+        || !(args[0].equals("record") || args[0].equals("verify"))
+        || !parseOptions(args)) {
+      System.err.println("usage: GoldenTrajectoryHarness record|verify [options]");
+      System.exit(2);
+    }
+
+    boolean allPassed = true;
+    for (Scenario scenario : SCENARIOS) {
+      Path file = dir.resolve(scenario.name + ".txt");
+      List<double[]> trajectory = run(scenario);
+
+      if (args[0].equals("record")) {
+        Files.createDirectories(dir);
+        write(file, trajectory);
+        System.out.println("recorded " + file);
+      } else {
+        allPassed &= verify(scenario.name, read(file), trajectory);
+      }
+
+      if (keplerCoasting) {
+        System.out.println(
+            scenario.name + ": coasted for " + Math.round(coastingTicks * TICK_SECS) + " s");
+      }
+    }
+
+    if (!allPassed) {
+      System.exit(1);
+    }
+  }
+
+  private static boolean parseOptions(String[] args) {
+    for (int i = 1; i < args.length; i++) {
+      switch (args[i]) {
+        case "--kepler-coasting":
+          keplerCoasting = true;
+          break;
+        case "--dir":
+          if (++i == args.length) {
+            return false;
+          }
+          dir = Paths.get(args[i]);
+          break;
+        case "--absolute-tolerance":
+          if (++i == args.length) {
+            return false;
+          }
+          absoluteTolerance = Double.parseDouble(args[i]);
+          break;
+        case "--relative-tolerance":
+          if (++i == args.length) {
+            return false;
+          }
+          relativeTolerance = Double.parseDouble(args[i]);
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  // Returns one row per sample: the sample time, followed by the state of every body.
+  private static List<double[]> run(Scenario scenario) {
+    Simulation sim = Scenes.orbitingTetheredSatellite(null, null, null, scenario.material);
+    sim.setKeplerCoasting(keplerCoasting);
+
+    List<double[]> trajectory = new ArrayList<>();
+    trajectory.add(sample(sim));
+
+    int tickCount = (int) Math.round(scenario.durationSecs / TICK_SECS);
+    int nextCommand = 0;
+    coastingTicks = 0;
+
+    for (int tick = 1; tick <= tickCount; tick++) {
+      while (nextCommand < scenario.commands.length
+          && scenario.commandTimes[nextCommand] <= sim.elapsedSecs()) {
+        sim.setTetherState(scenario.commands[nextCommand]);
+        nextCommand++;
+      }
+
+      sim.tick(TICK_SECS);
+
+      for (PhysicsObject po : sim.physicsObjects()) {
+        if (po.coasting) {
+          coastingTicks++;
+          break;
+        }
+      }
+
+      if (tick % TICKS_PER_SAMPLE == 0) {
+        trajectory.add(sample(sim));
+      }
+    }
+
+    return trajectory;
+  }
+
+  private static double[] sample(Simulation sim) {
+    List<PhysicsObject> objects = sim.physicsObjects();
+
+    double[] row = new double[1 + objects.size() * VALUES_PER_BODY];
+    row[0] = sim.elapsedSecs();
+
+    int i = 1;
+    for (PhysicsObject po : objects) {
+      row[i++] = po.position().x();
+      row[i++] = po.position().y();
+      row[i++] = po.velocity().x();
+      row[i++] = po.velocity().y();
+      row[i++] = po.angleRad();
+      row[i++] = po.angularSpeed();
+    }
+
+    return row;
+  }
+
+  private static boolean verify(String name, List<double[]> expected, List<double[]> actual) {
+    if (expected.size() != actual.size()) {
+      System.out.println(
+          name + ": FAIL, expected " + expected.size() + " samples, got " + actual.size());
+      return false;
+    }
+
+    double maxDeviation = 0.0;
+
+    for (int s = 0; s < expected.size(); s++) {
+      double[] e = expected.get(s);
+      double[] a = actual.get(s);
+
+      if (e.length != a.length) {
+        System.out.println(
+            name
+                + ": FAIL at t="
+                + e[0]
+                + ", expected "
+                + (e.length - 1) / VALUES_PER_BODY
+                + " bodies, got "
+                + (a.length - 1) / VALUES_PER_BODY);
+        return false;
+      }
+
+      for (int i = 0; i < e.length; i++) {
+        double deviation = Math.abs(a[i] - e[i]);
+        if (i > 0 && (i - 1) % VALUES_PER_BODY == 4) {
+          // Angles wrap around, so compare them the short way round.
+          deviation = Math.min(deviation, 2.0 * Math.PI - deviation);
+        }
+
+        if (!(deviation <= absoluteTolerance + relativeTolerance * Math.abs(e[i]))) {
+          System.out.println(
+              name
+                  + ": FAIL at t="
+                  + e[0]
+                  + ", body "
+                  + (i - 1) / VALUES_PER_BODY
+                  + " value "
+                  + (i - 1) % VALUES_PER_BODY
+                  + ": expected "
+                  + e[i]
+                  + ", got "
+                  + a[i]);
+          return false;
+        }
+
+        maxDeviation = Math.max(maxDeviation, deviation);
+      }
+    }
+
+    System.out.println(name + ": ok, max deviation " + maxDeviation);
+    return true;
+  }
+
+  private static void write(Path file, List<double[]> trajectory) throws IOException {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+      for (double[] row : trajectory) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+          if (i > 0) {
+            line.append(' ');
+          }
+          line.append(row[i]);
+        }
+        out.println(line);
+      }
+    }
+  }
+
+  private static List<double[]> read(Path file) throws IOException {
+    List<double[]> trajectory = new ArrayList<>();
+    for (String line : Files.readAllLines(file)) {
+      String[] fields = line.trim().split(" ");
+      double[] row = new double[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        row[i] = Double.parseDouble(fields[i]);
+      }
+      trajectory.add(row);
+    }
+    return trajectory;
+  }
+}
@@ -0,0 +1,327 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An island is a set of bodies that can interact with each other during a tick,
+// either because they are tethered together or because they are in contact.
+// Bodies in different islands cannot affect each other's constraints, so each
+// island can be solved on its own.
+class Island {
+  final List<PhysicsObject> bodies = new ArrayList<>();
+
+  // The tether segments in this island, as indices into the tether table, in table
+  // order.
+  int[] tethers;
+
+  final List<ContactPair> contactPairs = new ArrayList<>();
+
+  // Tether segments that broke while solving this island, in the order they broke.
+  final List<TetherBreak> tetherBreaks = new ArrayList<>();
+
+  // The work that the solver's impulses did on the island's bodies.  The spool
+  // adds energy or takes it out, and bouncing, friction and damping take it out.
+  double work = 0.0;
+
+  // How much the island's tightest tether link can close before it could go taut.
+  // While this is positive and nothing is in contact, the solver has nothing to do.
+  // A negative value means the island is awake.
+  private double sleepSlack = -1.0;
+
+  // Kepler coasting state; see KeplerCoasting.
+  boolean coasting = false;
+  int quietTicks = 0;
+  double nonRigidEnergyRatio = -1.0;
+  double coastAngularSpeed = 0.0;
+  double coastGravityScale = 1.0;
+
+  // The world that the island is part of.
+  final List<PhysicsObject> allBodies;
+  final TetherTable tetherTable;
+
+  Island(List<PhysicsObject> allBodies, TetherTable tetherTable) {
+    this.allBodies = allBodies;
+    this.tetherTable = tetherTable;
+  }
+
+  // Returns true if none of this island's constraints can be active this tick,
+  // in which case its solver work can be skipped.
+  boolean isIdle(double secs) {
+    if (sleepSlack <= 0.0 || !contactPairs.isEmpty()) {
+      return false;
+    }
+
+    sleepSlack -= maxClosingSpeed() * secs;
+    return true;
+  }
+
+  // Called once the island's constraints have been solved for this tick.
+  void solved(boolean impulsesApplied, double secs) {
+    if (impulsesApplied || !contactPairs.isEmpty()) {
+      sleepSlack = -1.0;
+      return;
+    }
+
+    sleepSlack = minTetherSlack() - maxClosingSpeed() * secs;
+  }
+
+  private double minTetherSlack() {
+    double slack = Double.POSITIVE_INFINITY;
+
+    for (int c : tethers) {
+      if (tetherTable.extendRate[c] != 0.0) {
+        // The tether is being spooled, so its length is changing under us.
+        return -1.0;
+      }
+
+      double distance =
+          tetherTable
+              .upperHookWorldCoords(c, allBodies)
+              .distanceTo(tetherTable.lowerHookWorldCoords(c, allBodies));
+      slack = Math.min(slack, tetherTable.restLength[c] - distance);
+    }
+
+    return slack;
+  }
+
+  // An upper bound on how fast any two hooks in the island can be moving apart.
+  private double maxClosingSpeed() {
+    if (tethers.length == 0) {
+      return 0.0;
+    }
+
+    Vec2D reference = bodies.get(0).velocity();
+
+    double maxHookSpeed = 0.0;
+    for (int c : tethers) {
+      maxHookSpeed =
+          Math.max(
+              maxHookSpeed,
+              Math.max(
+                  hookSpeed(
+                      allBodies.get(tetherTable.upper[c]),
+                      tetherTable.upperHookX[c],
+                      tetherTable.upperHookY[c],
+                      reference),
+                  hookSpeed(
+                      allBodies.get(tetherTable.lower[c]),
+                      tetherTable.lowerHookX[c],
+                      tetherTable.lowerHookY[c],
+                      reference)));
+    }
+
+    return 2.0 * maxHookSpeed;
+  }
+
+  private static double hookSpeed(PhysicsObject po, double hookX, double hookY, Vec2D reference) {
+    double dvx = po.velocity().x() - reference.x();
+    double dvy = po.velocity().y() - reference.y();
+    double hookReach = Math.sqrt(hookX * hookX + hookY * hookY);
+    return Math.sqrt(dvx * dvx + dvy * dvy) + Math.abs(po.angularSpeed()) * hookReach;
+  }
+
+  void inheritState(Island previous) {
+    sleepSlack = previous.sleepSlack;
+    coasting = previous.coasting;
+    quietTicks = previous.quietTicks;
+    nonRigidEnergyRatio = previous.nonRigidEnergyRatio;
+    coastAngularSpeed = previous.coastAngularSpeed;
+    coastGravityScale = previous.coastGravityScale;
+  }
+}
+
+// Two bodies whose discs overlap.  A pair that stays in contact from one tick to
+// the next keeps the same ContactPair, so that the solver can pick up where it
+// left off: see Simulation.applyCollisions.
+class ContactPair {
+  final PhysicsObject a;
+  final PhysicsObject b;
+
+  // Whether the pair was already in contact on the tick before.
+  boolean persistent = false;
+
+  // The last split into islands that found the pair in contact.
+  int lastBuild;
+
+  // The normal impulse that the solver applied last tick, pushing b away from a.
+  double normalImpulse = 0.0;
+
+  // Set up for the current tick by the solver.  The normal points from a to b.
+  boolean touching;
+  Vec2D normal;
+  double targetNormalSpeed;
+
+  ContactPair(PhysicsObject a, PhysicsObject b) {
+    this.a = a;
+    this.b = b;
+  }
+}
+
+// Partitions the world into islands once per tick.
+//
+// Tether links always join their two ends into the same island.  Potential contacts
+// are found with a sweep along the x axis, so that bodies that are far apart are never
+// compared against each other.
+class IslandBuilder {
+  // Counts the splits into islands, so that contact pairs can tell which one last
+  // found them.
+  private int buildCount = 0;
+
+  public List<Island> build(List<PhysicsObject> bodies, TetherTable tetherTable) {
+    int count = bodies.size();
+
+    int[] parent = new int[count];
+    for (int i = 0; i < count; i++) {
+      parent[i] = i;
+    }
+
+    for (int c = 0; c < tetherTable.count; c++) {
+      union(parent, tetherTable.upper[c], tetherTable.lower[c]);
+    }
+
+    List<int[]> pairs = findPotentialContacts(bodies);
+    for (int[] pair : pairs) {
+      union(parent, pair[0], pair[1]);
+    }
+
+    Island[] islandsByRoot = new Island[count];
+    List<Island> islands = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      int root = find(parent, i);
+      if (islandsByRoot[root] == null) {
+        islandsByRoot[root] = new Island(bodies, tetherTable);
+        islands.add(islandsByRoot[root]);
+      }
+
+      islandsByRoot[root].bodies.add(bodies.get(i));
+    }
+
+    int[] tetherCounts = new int[count];
+    for (int c = 0; c < tetherTable.count; c++) {
+      tetherCounts[find(parent, tetherTable.upper[c])]++;
+    }
+    for (int i = 0; i < count; i++) {
+      if (islandsByRoot[i] != null) {
+        islandsByRoot[i].tethers = new int[tetherCounts[i]];
+        tetherCounts[i] = 0;
+      }
+    }
+    for (int c = 0; c < tetherTable.count; c++) {
+      int root = find(parent, tetherTable.upper[c]);
+      islandsByRoot[root].tethers[tetherCounts[root]++] = c;
+    }
+
+    // Contact pairs from last tick are kept on their first body rather than in a map,
+    // so that looking them up allocates nothing.  A body touches only a few others,
+    // so a linear search of its list is cheap.
+    buildCount++;
+    for (int[] pair : pairs) {
+      PhysicsObject a = bodies.get(pair[0]);
+      PhysicsObject b = bodies.get(pair[1]);
+
+      ContactPair contact = null;
+      for (int i = 0; i < a.contacts.size() && contact == null; i++) {
+        if (a.contacts.get(i).b == b) {
+          contact = a.contacts.get(i);
+          contact.persistent = true;
+        }
+      }
+      if (contact == null) {
+        contact = new ContactPair(a, b);
+        a.contacts.add(contact);
+      }
+      contact.lastBuild = buildCount;
+
+      islandsByRoot[find(parent, pair[0])].contactPairs.add(contact);
+    }
+
+    // Drop the pairs that are no longer in contact.
+    for (PhysicsObject po : bodies) {
+      List<ContactPair> contacts = po.contacts;
+      int kept = 0;
+      for (int i = 0; i < contacts.size(); i++) {
+        if (contacts.get(i).lastBuild == buildCount) {
+          contacts.set(kept++, contacts.get(i));
+        }
+      }
+      for (int i = contacts.size() - 1; i >= kept; i--) {
+        contacts.remove(i);
+      }
+    }
+
+    // An island keeps its sleep and coasting state only if it has exactly the
+    // bodies of an island from the tick before.  Every body remembers the island it
+    // was in, so if they all were in the same one, and it had no others, it is the
+    // same island.
+    for (Island island : islands) {
+      Island previous = island.bodies.get(0).island;
+      boolean sameBodies = previous != null && previous.bodies.size() == island.bodies.size();
+      for (int i = 1; sameBodies && i < island.bodies.size(); i++) {
+        sameBodies = island.bodies.get(i).island == previous;
+      }
+      if (sameBodies) {
+        island.inheritState(previous);
+      }
+    }
+    for (Island island : islands) {
+      for (PhysicsObject po : island.bodies) {
+        po.island = island;
+      }
+    }
+
+    return islands;
+  }
+
+  // Returns the index pairs (i < j) of all bodies whose discs overlap, in the same
+  // order as a nested loop over the body list would visit them.
+  private List<int[]> findPotentialContacts(List<PhysicsObject> bodies) {
+    int count = bodies.size();
+
+    double[] minX = new double[count];
+    double[] maxX = new double[count];
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      PhysicsObject po = bodies.get(i);
+      minX[i] = po.position().x() - po.radius();
+      maxX[i] = po.position().x() + po.radius();
+      order[i] = i;
+    }
+
+    Arrays.sort(order, (i, j) -> Double.compare(minX[i], minX[j]));
+
+    List<int[]> pairs = new ArrayList<>();
+
+    for (int k = 0; k < count; k++) {
+      int i = order[k];
+      PhysicsObject a = bodies.get(i);
+      for (int m = k + 1; m < count && minX[order[m]] < maxX[i]; m++) {
+        int j = order[m];
+        PhysicsObject b = bodies.get(j);
+        double minDistance = a.radius() + b.radius();
+        if (a.position().distanceSquaredTo(b.position()) < minDistance * minDistance) {
+          pairs.add(i < j ? new int[] {i, j} : new int[] {j, i});
+        }
+      }
+    }
+
+    pairs.sort((p, q) -> p[0] != q[0] ? Integer.compare(p[0], q[0]) : Integer.compare(p[1], q[1]));
+
+    return pairs;
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  private static void union(int[] parent, int i, int j) {
+    int rootI = find(parent, i);
+    int rootJ = find(parent, j);
+    if (rootI != rootJ) {
+      parent[Math.max(rootI, rootJ)] = Math.min(rootI, rootJ);
+    }
+  }
+}
@@ -0,0 +1,469 @@
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+// Lets quiet tethered satellites coast analytically instead of being integrated.
+//
+// A satellite is quiet when its tether is held and taut, nothing is touching it,
+// and it has been moving as a rigid body, turning about once per orbit, for a
+// while.  A quiet satellite's barycenter is then advanced along its Kepler orbit
+// around the gravity source, and its bodies are carried around the barycenter as a
+// rigid body turning at the orbital rate.  As soon as the tether is spooled,
+// something comes into contact with it, or its membership changes, it goes back to
+// full integration.  Since coasting keeps every body's velocity consistent with the
+// rigid motion, the hand-off back to integration is seamless.
+class KeplerCoasting {
+
+  // How many consecutive quiet ticks a satellite needs before it starts coasting.
+  private static final int QUIET_TICKS_MIN = 120;
+
+  // A tether counts as taut while every one of its segments has a smoothed tension,
+  // and its ends are at least this fraction of its length apart.
+  private static final double TAUT_FRACTION = 0.99;
+
+  // The most kinetic energy, relative to the satellite's orbital kinetic energy,
+  // that may be in motion other than the rigid rotation, on average over the last
+  // few seconds.  This is what gets discarded when the satellite starts coasting, so
+  // it has to be small enough that bodies bouncing on the end of their tether
+  // aren't taken for a rigid body.  It is averaged so that the faint, steady
+  // ringing of a stretchy tether doesn't keep the satellite from coasting.
+  private static final double NON_RIGID_ENERGY_RATIO_MAX = 1e-7;
+  private static final double NON_RIGID_ENERGY_FILTER_SECS = 2.0;
+
+  // How far the satellite's spin may be from the rate its barycenter goes around
+  // the source, as a fraction of that rate.  A satellite held by the gravity
+  // gradient swings gently about the vertical, which is what this lets through.
+  // Coasting turns it at the orbital rate, so it keeps its mean attitude to the
+  // vertical and the swing is dropped.
+  private static final double SPIN_MISMATCH_MAX = 1e-2;
+
+  private final PhysicsObject source;
+
+  KeplerCoasting(GravitySource gravitySource) {
+    this.source = gravitySource.physicsObject();
+  }
+
+  // Called at the start of a tick to start coasting any satellite that was lined up
+  // for it last tick, and to stop coasting any satellite that is no longer quiet.
+  // Islands whose membership changed start out not coasting, so this also clears
+  // the bodies that they took over from a coasting island.
+  void checkCoasting(List<Island> islands, TetherState tetherState) {
+    for (Island island : islands) {
+      boolean ready = island.quietTicks >= QUIET_TICKS_MIN;
+      if (ready) {
+        island.quietTicks = 0;
+      }
+
+      setCoasting(
+          island,
+          (island.coasting || ready)
+              && tetherState == TetherState.HOLDING
+              && island.contactPairs.isEmpty());
+    }
+  }
+
+  // Called once a satellite has been solved, to line it up for coasting if it has
+  // been quiet for long enough.  It only starts on the next tick, since it has
+  // already felt this tick's gravity.
+  void considerCoasting(Island island, TetherState tetherState, double secs) {
+    if (isQuiet(island, tetherState, secs)) {
+      island.quietTicks++;
+    } else {
+      island.quietTicks = 0;
+    }
+
+    if (island.quietTicks >= QUIET_TICKS_MIN) {
+      snapToRigidMotion(island, secs);
+    }
+  }
+
+  // While a satellite coasts, it doesn't feel the source's gravity body by body,
+  // but the source still feels the satellite's.
+  void applySourceReaction(Island island, double secs) {
+    double mass = 0.0;
+    double x = 0.0;
+    double y = 0.0;
+    for (PhysicsObject po : island.bodies) {
+      mass += po.mass();
+      x += po.mass() * po.position().x();
+      y += po.mass() * po.position().y();
+    }
+
+    Vec2D offset = new Vec2D(x / mass, y / mass).sub(source.position());
+    double forceMagnitude =
+        island.coastGravityScale * Simulation.G * mass * source.mass() / offset.lengthSquared();
+
+    source.feelForce(offset.toLength(forceMagnitude), secs);
+  }
+
+  // Advances a coasting satellite.  Must be called after the source has moved.
+  void advance(Island island, double secs) {
+    double mass = 0.0;
+    double x = 0.0;
+    double y = 0.0;
+    double vx = 0.0;
+    double vy = 0.0;
+    for (PhysicsObject po : island.bodies) {
+      mass += po.mass();
+      x += po.mass() * po.position().x();
+      y += po.mass() * po.position().y();
+      vx += po.mass() * po.velocity().x();
+      vy += po.mass() * po.velocity().y();
+    }
+    x /= mass;
+    y /= mass;
+    vx /= mass;
+    vy /= mass;
+
+    // The source has already moved this tick, so its position is taken back to the
+    // start of the tick to get the satellite's orbital state.
+    double[] orbit = {
+      x - (source.position().x() - source.velocity().x() * secs),
+      y - (source.position().y() - source.velocity().y() * secs),
+      vx - source.velocity().x(),
+      vy - source.velocity().y()
+    };
+    double mu = island.coastGravityScale * Simulation.G * (source.mass() + mass);
+
+    // The integrator kicks the bodies before it moves them, so their velocities run
+    // half a tick behind their positions.  The orbit's velocity is brought level for
+    // the propagation and put back half a tick behind afterwards, so that the
+    // hand-off back to integration stays seamless.
+    kick(orbit, mu, 0.5 * secs);
+    KeplerPropagator.propagate(orbit, mu, secs);
+    kick(orbit, mu, -0.5 * secs);
+
+    double newX = source.position().x() + orbit[0];
+    double newY = source.position().y() + orbit[1];
+    double newVx = source.velocity().x() + orbit[2];
+    double newVy = source.velocity().y() + orbit[3];
+
+    double w = island.coastAngularSpeed;
+    double sin = StrictMath.sin(w * secs);
+    double cos = StrictMath.cos(w * secs);
+
+    for (PhysicsObject po : island.bodies) {
+      double rx = po.position().x() - x;
+      double ry = po.position().y() - y;
+      double newRx = rx * cos - ry * sin;
+      double newRy = rx * sin + ry * cos;
+
+      po.position = new Vec2D(newX + newRx, newY + newRy);
+      po.velocity =
+          new Vec2D(newVx, newVy).add(rotationVelocity(w, newRx, newRy, 0.5 * secs));
+      po.turn(secs);
+    }
+  }
+
+  // Advances the velocity of an orbit, given as {x, y, vx, vy}, by the pull of the
+  // central body over the given time.
+  private static void kick(double[] orbit, double mu, double secs) {
+    double r = Math.sqrt(orbit[0] * orbit[0] + orbit[1] * orbit[1]);
+    double pull = mu / (r * r * r) * secs;
+    orbit[2] -= pull * orbit[0];
+    orbit[3] -= pull * orbit[1];
+  }
+
+  // The velocity that a point now at (rx, ry) from the barycenter of a body turning
+  // at w had the given time ago.
+  private static Vec2D rotationVelocity(double w, double rx, double ry, double agoSecs) {
+    double sin = StrictMath.sin(w * agoSecs);
+    double cos = StrictMath.cos(w * agoSecs);
+    return new Vec2D(-w * (ry * cos - rx * sin), w * (rx * cos + ry * sin));
+  }
+
+  private boolean isQuiet(Island island, TetherState tetherState, double secs) {
+    if (tetherState != TetherState.HOLDING
+        || island.tethers.length == 0
+        || !island.contactPairs.isEmpty()
+        || island.bodies.contains(source)
+        || !isTaut(island)) {
+      island.nonRigidEnergyRatio = -1.0;
+      return false;
+    }
+
+    RigidMotion rigid = new RigidMotion(island);
+
+    double orbitVx = rigid.vx - source.velocity().x();
+    double orbitVy = rigid.vy - source.velocity().y();
+    double orbitX = rigid.x - source.position().x();
+    double orbitY = rigid.y - source.position().y();
+    double mu = Simulation.G * (source.mass() + rigid.mass);
+
+    double specificEnergy =
+        0.5 * (orbitVx * orbitVx + orbitVy * orbitVy) - mu / StrictMath.hypot(orbitX, orbitY);
+    if (specificEnergy >= 0.0) {
+      // The orbit isn't closed.
+      island.nonRigidEnergyRatio = -1.0;
+      return false;
+    }
+
+    double orbitalRate = orbitalRate(rigid);
+    boolean spinMatches =
+        Math.abs(rigid.angularSpeed - orbitalRate) <= SPIN_MISMATCH_MAX * Math.abs(orbitalRate);
+
+    double orbitalEnergy = 0.5 * rigid.mass * (orbitVx * orbitVx + orbitVy * orbitVy);
+
+    Set<PhysicsObject> hookedBodies = hookedBodies(island);
+
+    double nonRigidEnergy = 0.0;
+    for (PhysicsObject po : island.bodies) {
+      double dvx = po.velocity().x() - rigid.velocityXAt(po.position());
+      double dvy = po.velocity().y() - rigid.velocityYAt(po.position());
+      nonRigidEnergy += 0.5 * po.mass() * (dvx * dvx + dvy * dvy);
+
+      if (hookedBodies.contains(po)) {
+        // A body's hooks only stay put relative to the others if it spins along with them.
+        double dw = po.angularSpeed() - rigid.angularSpeed;
+        nonRigidEnergy += 0.5 * po.momentOfInertia() * dw * dw;
+      }
+    }
+
+    // A negative ratio means that the average has to start afresh.
+    double ratio = nonRigidEnergy / orbitalEnergy;
+    if (island.nonRigidEnergyRatio < 0.0) {
+      island.nonRigidEnergyRatio = ratio;
+    } else {
+      island.nonRigidEnergyRatio +=
+          (ratio - island.nonRigidEnergyRatio)
+              * Math.min(1.0, secs / NON_RIGID_ENERGY_FILTER_SECS);
+    }
+
+    return spinMatches && island.nonRigidEnergyRatio <= NON_RIGID_ENERGY_RATIO_MAX;
+  }
+
+  // The rate at which the satellite's barycenter goes around the source.
+  private double orbitalRate(RigidMotion rigid) {
+    double orbitX = rigid.x - source.position().x();
+    double orbitY = rigid.y - source.position().y();
+    double orbitVx = rigid.vx - source.velocity().x();
+    double orbitVy = rigid.vy - source.velocity().y();
+    return (orbitX * orbitVy - orbitY * orbitVx) / (orbitX * orbitX + orbitY * orbitY);
+  }
+
+  // A tether is only taut if it is pulling steadily.  Its smoothed tension is
+  // judged rather than its load on this tick, since an inextensible segment pulls in
+  // jerks, and has no load on the ticks between them.  The length is
+  // judged over each whole tether, from the body at its top to the body at its
+  // bottom, since the individual pieces jiggle about.
+  private boolean isTaut(Island island) {
+    TetherTable table = island.tetherTable;
+
+    for (int top : island.tethers) {
+      if (!table.isFirst(top, island.allBodies)) {
+        continue;
+      }
+
+      double length = 0.0;
+      int bottom = top;
+      for (int c = top; c >= 0; c = table.next(c, island.allBodies)) {
+        if (table.tension[c] <= 0.0) {
+          return false;
+        }
+        length += table.restLength[c];
+        bottom = c;
+      }
+
+      double distance =
+          table
+              .upperHookWorldCoords(top, island.allBodies)
+              .distanceTo(table.lowerHookWorldCoords(bottom, island.allBodies));
+      if (distance < TAUT_FRACTION * length) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // Sets the satellite turning as a rigid body at the rate it goes around the source
+  // on average, for the move at the end of this tick.  The vertical turns unevenly
+  // on an eccentric orbit, but the satellite only swings about it.
+  private void snapToRigidMotion(Island island, double secs) {
+    RigidMotion rigid = new RigidMotion(island);
+    island.coastGravityScale = gravityScale(island, rigid);
+    rigid.angularSpeed = meanMotion(rigid, island.coastGravityScale, secs);
+    Set<PhysicsObject> hookedBodies = hookedBodies(island);
+
+    // The bodies are about to be moved, so their velocities run half a tick ahead of
+    // their positions.
+    for (PhysicsObject po : island.bodies) {
+      po.velocity =
+          new Vec2D(rigid.vx, rigid.vy)
+              .add(
+                  rotationVelocity(
+                      rigid.angularSpeed,
+                      po.position().x() - rigid.x,
+                      po.position().y() - rigid.y,
+                      -0.5 * secs));
+      if (hookedBodies.contains(po)) {
+        po.angularSpeed = rigid.angularSpeed;
+      }
+    }
+
+    island.coastAngularSpeed = rigid.angularSpeed;
+  }
+
+  // The satellite's mean motion along the orbit that it will coast on.
+  private double meanMotion(RigidMotion rigid, double gravityScale, double secs) {
+    double mu = gravityScale * Simulation.G * (source.mass() + rigid.mass);
+    double[] orbit = {
+      rigid.x - source.position().x(),
+      rigid.y - source.position().y(),
+      rigid.vx - source.velocity().x(),
+      rigid.vy - source.velocity().y()
+    };
+    kick(orbit, mu, -0.5 * secs);
+
+    double r = Math.sqrt(orbit[0] * orbit[0] + orbit[1] * orbit[1]);
+    double a = 1.0 / (2.0 / r - (orbit[2] * orbit[2] + orbit[3] * orbit[3]) / mu);
+    return Math.copySign(Math.sqrt(mu / (a * a * a)), orbitalRate(rigid));
+  }
+
+  // The source's pull on the satellite, as a multiple of what it would be if all of
+  // the satellite's mass were at its barycenter.  Gravity falls off faster than
+  // linearly, so a satellite strung out along the vertical is pulled harder than
+  // that.  While it coasts it keeps its attitude to the vertical, so the multiple
+  // stays the same.
+  private double gravityScale(Island island, RigidMotion rigid) {
+    double barycenterX = rigid.x - source.position().x();
+    double barycenterY = rigid.y - source.position().y();
+    double barycenterDistance = StrictMath.hypot(barycenterX, barycenterY);
+
+    double pull = 0.0;
+    for (PhysicsObject po : island.bodies) {
+      double offsetX = po.position().x() - source.position().x();
+      double offsetY = po.position().y() - source.position().y();
+      double distance = StrictMath.hypot(offsetX, offsetY);
+      pull +=
+          po.mass()
+              * (offsetX * barycenterX + offsetY * barycenterY)
+              / (distance * distance * distance * barycenterDistance);
+    }
+
+    return pull * barycenterDistance * barycenterDistance / rigid.mass;
+  }
+
+  private void setCoasting(Island island, boolean coasting) {
+    island.coasting = coasting;
+    for (PhysicsObject po : island.bodies) {
+      po.coasting = coasting;
+    }
+  }
+
+  // The bodies in the island that have a tether attached away from their center.
+  private static Set<PhysicsObject> hookedBodies(Island island) {
+    TetherTable table = island.tetherTable;
+    Set<PhysicsObject> hookedBodies = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int c : island.tethers) {
+      if (table.upperHookX[c] != 0.0 || table.upperHookY[c] != 0.0) {
+        hookedBodies.add(island.allBodies.get(table.upper[c]));
+      }
+      if (table.lowerHookX[c] != 0.0 || table.lowerHookY[c] != 0.0) {
+        hookedBodies.add(island.allBodies.get(table.lower[c]));
+      }
+    }
+    return hookedBodies;
+  }
+
+  // The rigid-body motion that best matches a set of bodies: the motion of their
+  // barycenter, plus the rotation about it that carries the same angular momentum.
+  private static class RigidMotion {
+    double mass;
+    double x;
+    double y;
+    double vx;
+    double vy;
+    double angularSpeed;
+
+    RigidMotion(Island island) {
+      for (PhysicsObject po : island.bodies) {
+        mass += po.mass();
+        x += po.mass() * po.position().x();
+        y += po.mass() * po.position().y();
+        vx += po.mass() * po.velocity().x();
+        vy += po.mass() * po.velocity().y();
+      }
+      x /= mass;
+      y /= mass;
+      vx /= mass;
+      vy /= mass;
+
+      double angularMomentum = 0.0;
+      double momentOfInertia = 0.0;
+      for (PhysicsObject po : island.bodies) {
+        double rx = po.position().x() - x;
+        double ry = po.position().y() - y;
+        angularMomentum +=
+            po.mass() * (rx * (po.velocity().y() - vy) - ry * (po.velocity().x() - vx));
+        momentOfInertia += po.mass() * (rx * rx + ry * ry);
+      }
+      angularSpeed = angularMomentum / momentOfInertia;
+    }
+
+    double velocityXAt(Vec2D position) {
+      return vx - angularSpeed * (position.y() - y);
+    }
+
+    double velocityYAt(Vec2D position) {
+      return vy + angularSpeed * (position.x() - x);
+    }
+  }
+}
+
+// Closed-form two-body propagation.
+class KeplerPropagator {
+
+  private static final int NEWTON_ITERATIONS_MAX = 20;
+  private static final double NEWTON_TOLERANCE = 1e-13;
+
+  // Advances a bound orbit, given as {x, y, vx, vy} relative to the central body,
+  // by the given time, in place.
+  //
+  // This solves Kepler's equation for the change in eccentric anomaly rather than
+  // the anomaly itself, which stays well-conditioned for near-circular orbits.
+  static void propagate(double[] state, double mu, double secs) {
+    double x = state[0];
+    double y = state[1];
+    double vx = state[2];
+    double vy = state[3];
+
+    double r0 = Math.sqrt(x * x + y * y);
+    double a = 1.0 / (2.0 / r0 - (vx * vx + vy * vy) / mu);
+    double sqrtA = Math.sqrt(a);
+    double sigma0 = (x * vx + y * vy) / Math.sqrt(mu);
+
+    double meanMotion = Math.sqrt(mu / (a * a * a));
+    double deltaMeanAnomaly = meanMotion * secs;
+
+    double deltaE = deltaMeanAnomaly;
+    for (int i = 0; i < NEWTON_ITERATIONS_MAX; i++) {
+      double sin = StrictMath.sin(deltaE);
+      double cos = StrictMath.cos(deltaE);
+      double f =
+          deltaE - (1.0 - r0 / a) * sin + sigma0 / sqrtA * (1.0 - cos) - deltaMeanAnomaly;
+      double fPrime = 1.0 - (1.0 - r0 / a) * cos + sigma0 / sqrtA * sin;
+      double step = f / fPrime;
+      deltaE -= step;
+      if (Math.abs(step) < NEWTON_TOLERANCE) {
+        break;
+      }
+    }
+
+    double sin = StrictMath.sin(deltaE);
+    double cos = StrictMath.cos(deltaE);
+
+    double r = a + (r0 - a) * cos + sigma0 * sqrtA * sin;
+
+    double f = 1.0 - a / r0 * (1.0 - cos);
+    double g = secs + Math.sqrt(a * a * a / mu) * (sin - deltaE);
+    double fDot = -Math.sqrt(mu * a) / (r * r0) * sin;
+    double gDot = 1.0 - a / r * (1.0 - cos);
+
+    state[0] = f * x + g * vx;
+    state[1] = f * y + g * vy;
+    state[2] = fDot * x + gDot * vx;
+    state[3] = fDot * y + gDot * vy;
+  }
+}
@@ -0,0 +1,95 @@
+// The pull of the source's equatorial bulge, through its J2 coefficient.
+//
+// The world is flat, so it is taken to be the source's equatorial plane.  There
+// the J2 term only strengthens gravity, by a factor of
+//   1.5 * J2 * (R / r)^2
+// where R is the source's radius and r the distance from its center.
+class J2Perturbation implements ForceModule {
+
+  // The Earth's, for reference.
+  static final double EARTH_J2 = 1.08263e-3;
+
+  private final double j2;
+
+  J2Perturbation(double j2) {
+    this.j2 = j2;
+  }
+
+  public void addForces(BodyState s) {
+    double scale = 1.5 * j2 * Simulation.G * s.sourceMass * s.sourceRadius * s.sourceRadius;
+
+    for (int i = 0; i < s.count; i++) {
+      if (!s.active[i]) {
+        continue;
+      }
+
+      double offsetX = s.sourceX - s.x[i];
+      double offsetY = s.sourceY - s.y[i];
+      double distanceSquared = offsetX * offsetX + offsetY * offsetY;
+      double inverseDistance = 1.0 / Math.sqrt(distanceSquared);
+      double forceMagnitude = scale * s.mass[i] / (distanceSquared * distanceSquared);
+
+      double forceX = forceMagnitude * inverseDistance * offsetX;
+      double forceY = forceMagnitude * inverseDistance * offsetY;
+
+      s.fx[i] += forceX;
+      s.fy[i] += forceY;
+      s.reactionX[i] += forceX;
+      s.reactionY[i] += forceY;
+    }
+  }
+}
+
+// Drag through an atmosphere whose density falls off exponentially with height
+// above the source's surface, and which turns with the source.
+//
+// Each body is taken to be a sphere of its radius.  Tether pieces have a radius
+// too, but a tether is too thin to catch much air, so they feel no drag.  The
+// source feels each body's drag in reverse, so momentum is conserved, but the
+// torque on its spin is left out.
+class ExponentialAtmosphereDrag implements ForceModule {
+
+  // A sphere's, for reference.
+  static final double SPHERE_DRAG_COEFFICIENT = 0.47;
+
+  private final double surfaceDensity;
+  private final double scaleHeight;
+  private final double dragCoefficient;
+
+  ExponentialAtmosphereDrag(double surfaceDensity, double scaleHeight, double dragCoefficient) {
+    this.surfaceDensity = surfaceDensity;
+    this.scaleHeight = scaleHeight;
+    this.dragCoefficient = dragCoefficient;
+  }
+
+  public void addForces(BodyState s) {
+    double w = s.sourceAngularSpeed;
+
+    for (int i = 0; i < s.count; i++) {
+      if (!s.active[i] || s.tetherPiece[i] || s.radius[i] <= 0.0) {
+        continue;
+      }
+
+      double offsetX = s.x[i] - s.sourceX;
+      double offsetY = s.y[i] - s.sourceY;
+      double height = Math.sqrt(offsetX * offsetX + offsetY * offsetY) - s.sourceRadius;
+      double density = surfaceDensity * StrictMath.exp(-height / scaleHeight);
+
+      // The body's velocity through the air, which moves with the source's surface.
+      double airspeedX = s.vx[i] - (s.sourceVx - w * offsetY);
+      double airspeedY = s.vy[i] - (s.sourceVy + w * offsetX);
+      double airspeed = Math.sqrt(airspeedX * airspeedX + airspeedY * airspeedY);
+
+      double area = Math.PI * s.radius[i] * s.radius[i];
+      double scale = -0.5 * density * dragCoefficient * area * airspeed;
+
+      double forceX = scale * airspeedX;
+      double forceY = scale * airspeedY;
+
+      s.fx[i] += forceX;
+      s.fy[i] += forceY;
+      s.reactionX[i] += forceX;
+      s.reactionY[i] += forceY;
+    }
+  }
+}
@@ -1,4 +1,6 @@
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 class PhysicsObject {
   Vec2D position = new Vec2D();
@@ -12,13 +14,26 @@ class PhysicsObject {
   double radius = 1.0;
   BufferedImage image = null;
 
-  Vec2D hookUplink = new Vec2D();
-  Vec2D hookDownlink = new Vec2D();
+  // Whether this body is one of the pieces that a tether is made of, rather than
+  // something attached to a tether.
+  boolean tetherPiece = false;
 
-  PhysicsObject downlinkObject = null;
+  // Whether this body pays out tether from a spool, and the mass of the tether
+  // still wound on it, which is part of the body's mass.  The segments it pays
+  // out are marked as spooled in the tether table.
+  boolean tetherSpool = false;
+  double tetherSpoolMass = 0.0;
 
-  double tetherMaxLength = 1.0;
-  double tetherExtendRate = 0.0;
+  // Set while the body's island is coasting along a Kepler orbit instead of being
+  // integrated.
+  boolean coasting = false;
+
+  // The island the body was put in when the world was last split into islands.
+  Island island = null;
+
+  // The contact pairs from the last split into islands in which this body is the
+  // first body, so that a contact that persists keeps its solver state.
+  final List<ContactPair> contacts = new ArrayList<>();
 
   PhysicsObject() {}
 
@@ -58,40 +73,20 @@ class PhysicsObject {
     return image;
   }
 
-  public Vec2D hookUplinkWorldCoords() {
-    return localToWorldCoords(hookUplink);
-  }
-
-  public Vec2D hookDownlinkWorldCoords() {
-    return localToWorldCoords(hookDownlink);
+  public void setImage(BufferedImage image) {
+    this.image = image;
   }
 
   public Vec2D localToWorldCoords(Vec2D vec) {
     return vec.rotate(angleRad).add(position);
   }
 
-  public PhysicsObject downlinkObject() {
-    return downlinkObject;
-  }
-
-  public double tetherMaxLength() {
-    return tetherMaxLength;
-  }
-
-  public void setTetherMaxLength(double tetherMaxLength) {
-    this.tetherMaxLength = tetherMaxLength;
-  }
-
-  public double tetherExtendRate() {
-    return tetherExtendRate;
-  }
-
-  public void setTetherExtendRate(double tetherExtendRate) {
-    this.tetherExtendRate = tetherExtendRate;
-  }
-
   public void move(double secs) {
     position = position.add(velocity.scale(secs));
+    turn(secs);
+  }
+
+  public void turn(double secs) {
     angleRad += angularSpeed * secs;
     while (angleRad < 0.0) {
       angleRad += 2.0 * Math.PI;
@@ -101,22 +96,6 @@ class PhysicsObject {
     }
   }
 
-  public void feelGravity(GravitySource source, double secs) {
-    PhysicsObject other = source.physicsObject();
-    if (other == this) {
-      return;
-    }
-
-    Vec2D offset = other.position().sub(position);
-    Vec2D normalizedDirection = offset.normalized();
-    double forceMagnitude = mass * other.mass() / offset.lengthSquared();
-
-    Vec2D force = normalizedDirection.scale(forceMagnitude);
-
-    feelForce(force, secs);
-    other.feelForce(force.flip(), secs);
-  }
-
   public void feelForce(Vec2D force, double secs) {
     feelImpulse(force.scale(secs));
   }
@@ -184,26 +163,18 @@ class PhysicsObjectBuilder {
     return this;
   }
 
-  public PhysicsObjectBuilder hookUplink(Vec2D hookUplink) {
-    o.hookUplink = hookUplink;
-    return this;
-  }
-
-  public PhysicsObjectBuilder hookDownlink(Vec2D hookDownlink) {
-    o.hookDownlink = hookDownlink;
+  public PhysicsObjectBuilder tetherPiece() {
+    o.tetherPiece = true;
     return this;
   }
 
-  public PhysicsObjectBuilder downlinkTo(PhysicsObject downlinkObject) {
-    o.downlinkObject = downlinkObject;
+  public PhysicsObjectBuilder tetherSpool(double tetherSpoolMass) {
+    o.tetherSpool = true;
+    o.tetherSpoolMass = tetherSpoolMass;
     return this;
   }
 
   public PhysicsObject build() {
-    if (o.downlinkObject != null) {
-      o.tetherMaxLength =
-          o.hookDownlinkWorldCoords().distanceTo(o.downlinkObject.hookUplinkWorldCoords());
-    }
     return o;
   }
 }
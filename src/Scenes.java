@@ -0,0 +1,213 @@
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+// The canonical scenes.  Images may be null when running without a display.
+class Scenes {
+
+  private static final double G = Simulation.G;
+
+  private static final double EARTH_RADIUS = 12742.0 / 2.0;
+  private static final double EARTH_MASS = 100000000000.0;
+
+  private static final double MAIN_SATELLITE_RADIUS = 600.0;
+  private static final double MAIN_SATELLITE_MASS = 100.0;
+  private static final double MAIN_SATELLITE_DISTANCE = 2.3 * EARTH_RADIUS;
+
+  private static final double SECONDARY_SATELLITE_RADIUS = 400.0;
+  private static final double SECONDARY_SATELLITE_MASS = 70.0;
+
+  // How many tether pieces' worth of tether the main satellite can pay out in all.
+  private static final int TETHER_PIECE_COUNT = 20;
+
+  private static final Vec2D PIECE_HOOK = new Vec2D();
+
+  public static Simulation orbitingTetheredSatellite(
+      BufferedImage earthImage,
+      BufferedImage mainSatelliteImage,
+      BufferedImage secondarySatelliteImage) {
+    return orbitingTetheredSatellite(
+        earthImage, mainSatelliteImage, secondarySatelliteImage, TetherMaterial.INEXTENSIBLE);
+  }
+
+  public static Simulation orbitingTetheredSatellite(
+      BufferedImage earthImage,
+      BufferedImage mainSatelliteImage,
+      BufferedImage secondarySatelliteImage,
+      TetherMaterial tetherMaterial) {
+    Simulation sim = new Simulation();
+
+    PhysicsObject earth =
+        new PhysicsObjectBuilder()
+            .mass(EARTH_MASS)
+            .angleRad(Math.toRadians(23.5))
+            .momentOfInertia(momentOfInertiaForDisc(EARTH_MASS, EARTH_RADIUS))
+            .radius(EARTH_RADIUS)
+            .image(earthImage)
+            .build();
+
+    sim.addPhysicsObjects(List.of(earth));
+
+    double secondarySatelliteDistance =
+        MAIN_SATELLITE_DISTANCE
+            - MAIN_SATELLITE_RADIUS
+            - SECONDARY_SATELLITE_RADIUS
+            - Simulation.TETHER_LENGTH_MIN;
+
+    addOrbitingTetheredSatellite(
+        sim,
+        earth,
+        MAIN_SATELLITE_DISTANCE,
+        MAIN_SATELLITE_MASS,
+        MAIN_SATELLITE_RADIUS,
+        mainSatelliteImage,
+        secondarySatelliteDistance,
+        SECONDARY_SATELLITE_MASS,
+        SECONDARY_SATELLITE_RADIUS,
+        secondarySatelliteImage,
+        TETHER_PIECE_COUNT);
+
+    sim.setGravitySource(new GravitySource(earth));
+    sim.setTetherMaterial(tetherMaterial);
+    sim.tetherPiecePool().reserve(TETHER_PIECE_COUNT);
+
+    return sim;
+  }
+
+  // Satellite A hangs satellite B below it on a tether, paid out from A's spool.
+  private static void addOrbitingTetheredSatellite(
+      Simulation sim,
+      PhysicsObject earth,
+      double distanceA,
+      double massA,
+      double radiusA,
+      BufferedImage imageA,
+      double distanceB,
+      double massB,
+      double radiusB,
+      BufferedImage imageB,
+      int tetherPieceCount) {
+    Vec2D hookA = new Vec2D(0.0, -radiusA);
+    Vec2D hookB = new Vec2D(0.0, radiusB);
+
+    PhysicsObject objB = createSatellite(distanceB, massB, radiusB, imageB, false, 0.0);
+    List<PhysicsObject> tether =
+        createTether(objB.localToWorldCoords(hookB).length(), distanceA - radiusA);
+
+    // Whatever tether hasn't been paid out yet is still wound on A's spool.
+    double spoolMass = (tetherPieceCount - tether.size()) * Simulation.TETHER_PIECE_MASS;
+    PhysicsObject objA =
+        createSatellite(distanceA, massA + spoolMass, radiusA, imageA, true, spoolMass);
+
+    List<PhysicsObject> satellite = new ArrayList<>(tether);
+    satellite.add(objA);
+    satellite.add(objB);
+
+    pushTetheredSatelliteIntoCircularOrbit(satellite, earth);
+
+    sim.addPhysicsObjects(satellite);
+
+    // The tether runs from B up through the pieces to A.
+    PhysicsObject below = objB;
+    Vec2D belowHook = hookB;
+    for (PhysicsObject piece : tether) {
+      sim.addTether(piece, PIECE_HOOK, below, belowHook);
+      below = piece;
+      belowHook = PIECE_HOOK;
+    }
+    int spooled = sim.addTether(objA, hookA, below, belowHook);
+    sim.tetherTable().spooled[spooled] = true;
+  }
+
+  private static PhysicsObject createSatellite(
+      double distance,
+      double mass,
+      double radius,
+      BufferedImage image,
+      boolean hasSpool,
+      double tetherSpoolMass) {
+    PhysicsObjectBuilder builder =
+        new PhysicsObjectBuilder()
+            .position(new Vec2D(0.0, distance))
+            .mass(mass)
+            .radius(radius)
+            .momentOfInertia(momentOfInertiaForDisc(mass, radius))
+            .image(image);
+
+    if (hasSpool) {
+      builder.tetherSpool(tetherSpoolMass);
+    }
+
+    return builder.build();
+  }
+
+  // Lays out as many pieces as it takes to keep the segments at about the target
+  // segment length, from the bottom up.
+  private static List<PhysicsObject> createTether(
+      double bottomHookDistance, double topHookDistance) {
+    int pieceCount =
+        (int) ((topHookDistance - bottomHookDistance) / Simulation.TETHER_SEGMENT_LENGTH_TARGET);
+
+    List<PhysicsObject> tether = new ArrayList<>();
+
+    for (int i = 0; i < pieceCount; i++) {
+      double distance =
+          bottomHookDistance
+              + (i + 1) * ((topHookDistance - bottomHookDistance) / (pieceCount + 1));
+
+      PhysicsObject piece =
+          new PhysicsObjectBuilder()
+              .position(new Vec2D(0.0, distance))
+              .mass(Simulation.TETHER_PIECE_MASS)
+              .tetherPiece()
+              .build();
+      tether.add(piece);
+    }
+
+    return tether;
+  }
+
+  private static void pushTetheredSatelliteIntoCircularOrbit(
+      List<PhysicsObject> satellite, PhysicsObject earth) {
+    Vec2D positionWeightedSum =
+        earth
+            .position()
+            .scale(earth.mass())
+            .add(
+                satellite.stream()
+                    .map(po -> po.position().scale(po.mass()))
+                    .reduce(new Vec2D(), (a, b) -> a.add(b)));
+    double massTotal = earth.mass() + satellite.stream().mapToDouble(po -> po.mass()).sum();
+    Vec2D barycenter = positionWeightedSum.scale(1.0 / massTotal);
+    double b = earth.position().distanceTo(barycenter);
+
+    double massOverDistanceSquaredSum =
+        satellite.stream()
+            .mapToDouble(po -> po.mass() / (po.position().distanceSquaredTo(earth.position())))
+            .sum();
+
+    double angularSpeed = Math.sqrt(G * massOverDistanceSquaredSum / b);
+
+    for (PhysicsObject po : satellite) {
+      Vec2D velocity = po.position().sub(barycenter).rotate(Math.PI / 2.0).scale(angularSpeed);
+      Vec2D impulse = velocity.scale(po.mass());
+      po.feelImpulse(impulse);
+      earth.feelImpulse(impulse.flip());
+
+      po.feelAngularImpulse(angularSpeed * po.momentOfInertia());
+    }
+  }
+
+  private static Vec2D calculateOrbitalImpulse(PhysicsObject a, PhysicsObject b) {
+    Vec2D offset = b.position().sub(a.position());
+
+    double impulseMagnitude =
+        a.mass() * b.mass() * Math.sqrt(G / ((a.mass() + b.mass()) * offset.length()));
+
+    return offset.rotate(-Math.PI / 2.0).toLength(impulseMagnitude);
+  }
+
+  private static double momentOfInertiaForDisc(double mass, double radius) {
+    return 0.5 * mass * radius * radius;
+  }
+}
@@ -1,25 +1,28 @@
-import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Shape;
-import java.awt.geom.AffineTransform;
-import java.awt.geom.Line2D;
-import java.awt.image.AffineTransformOp;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
-import java.awt.image.BufferedImageOp;
 import java.util.List;
 import javax.swing.JComponent;
 
+// Shows the simulation through a camera that can be steered with the mouse: the
+// wheel zooms about the pointer, dragging pans, and double-clicking a body follows
+// it until the view is dragged or empty space is double-clicked.
 class SimCanvas extends JComponent {
 
-  private static Color TETHER_COLOR = new Color(0.5f, 0.5f, 1.0f);
+  // How much one notch of the mouse wheel zooms by.
+  private static final double ZOOM_STEP = 1.2;
 
-  private double spaceViewWidth;
+  private SimRenderer renderer;
 
-  private BufferedImage backgroundImage;
+  private Camera camera;
 
   private List<PhysicsObject> physicsObjects;
-  ;
+  private TetherTable tetherTable;
+
+  private Runnable firstPaintListener = null;
 
   private Object physicsLock;
 
@@ -27,87 +30,98 @@ class SimCanvas extends JComponent {
       double spaceViewWidth,
       BufferedImage backgroundImage,
       List<PhysicsObject> physicsObjects,
+      TetherTable tetherTable,
       Object physicsLock) {
-    this.spaceViewWidth = spaceViewWidth;
-    this.backgroundImage = backgroundImage;
+    this.renderer = new SimRenderer(backgroundImage);
+    this.camera = new Camera(spaceViewWidth);
 
     this.physicsObjects = physicsObjects;
+    this.tetherTable = tetherTable;
 
     this.physicsLock = physicsLock;
+
+    MouseAdapter mouseControl = new MouseControl();
+    addMouseListener(mouseControl);
+    addMouseMotionListener(mouseControl);
+    addMouseWheelListener(mouseControl);
+  }
+
+  public void setBackgroundImage(BufferedImage backgroundImage) {
+    renderer.setBackgroundImage(backgroundImage);
+    repaint();
+  }
+
+  // Called once, after the canvas has been painted for the first time.
+  public void setFirstPaintListener(Runnable firstPaintListener) {
+    this.firstPaintListener = firstPaintListener;
   }
 
   protected void paintComponent(Graphics legacyG) {
     Graphics2D g = (Graphics2D) legacyG;
 
-    drawBackground(g);
+    renderer.drawBackground(g, getWidth(), getHeight());
 
     synchronized (physicsLock) {
-      drawPhysicsObjects(g);
+      renderer.drawPhysicsObjects(
+          g, camera.view(getWidth(), getHeight()), physicsObjects, tetherTable);
     }
-  }
 
-  private void drawBackground(Graphics2D g) {
-    int xOff = (getWidth() - backgroundImage.getWidth()) / 2;
-    int yOff = (getHeight() - backgroundImage.getHeight()) / 2;
-
-    g.drawImage(backgroundImage, null, xOff, yOff);
-  }
-
-  private void drawPhysicsObjects(Graphics2D g) {
-    drawImages(g);
-    drawTethers(g);
-  }
-
-  private void drawImages(Graphics2D g) {
-    for (PhysicsObject po : physicsObjects) {
-      if (po.image() != null) {
-        drawImageInWorld(g, po.image(), po.position(), po.angleRad(), po.radius());
-      }
+    if (firstPaintListener != null) {
+      firstPaintListener.run();
+      firstPaintListener = null;
     }
   }
 
-  private void drawTethers(Graphics2D g) {
-    for (PhysicsObject po : physicsObjects) {
-      if (po.downlinkObject() != null) {
-        drawLineInWorld(
-            g,
-            po.hookDownlinkWorldCoords(),
-            po.downlinkObject().hookUplinkWorldCoords(),
-            TETHER_COLOR);
+  // The body under the given pixel, or null if there isn't one.
+  private PhysicsObject bodyAt(int screenX, int screenY) {
+    synchronized (physicsLock) {
+      Camera.View view = camera.view(getWidth(), getHeight());
+      Vec2D point = new Vec2D(view.worldX(screenX), view.worldY(screenY));
+
+      for (PhysicsObject po : physicsObjects) {
+        if (po.image() != null && po.position().distanceTo(point) <= po.radius()) {
+          return po;
+        }
       }
+      return null;
     }
   }
 
-  private void drawImageInWorld(
-      Graphics2D g, BufferedImage image, Vec2D position, double angleRad, double radius) {
-    AffineTransform transform = new AffineTransform();
-
-    transform.translate(getWidth() / 2, getHeight() / 2);
-
-    double viewScale = Math.min(getWidth(), getHeight()) / spaceViewWidth;
-    transform.scale(viewScale, viewScale);
-
-    transform.translate(position.x(), -position.y());
-    transform.rotate(-angleRad);
-    transform.scale(2.0 * radius / image.getWidth(), 2.0 * radius / image.getHeight());
-    transform.translate(-image.getWidth() / 2, -image.getHeight() / 2);
-
-    BufferedImageOp imageOp = new AffineTransformOp(transform, AffineTransformOp.TYPE_BICUBIC);
-
-    g.drawImage(image, imageOp, 0, 0);
-  }
+  private class MouseControl extends MouseAdapter {
+    private int lastX;
+    private int lastY;
 
-  private void drawLineInWorld(Graphics2D g, Vec2D p1, Vec2D p2, Color color) {
-    AffineTransform transform = new AffineTransform();
+    public void mousePressed(MouseEvent e) {
+      lastX = e.getX();
+      lastY = e.getY();
+    }
 
-    transform.translate(getWidth() / 2, getHeight() / 2);
+    public void mouseDragged(MouseEvent e) {
+      synchronized (physicsLock) {
+        camera.pan(e.getX() - lastX, e.getY() - lastY, getWidth(), getHeight());
+      }
+      lastX = e.getX();
+      lastY = e.getY();
+      repaint();
+    }
 
-    double viewScale = Math.min(getWidth(), getHeight()) / spaceViewWidth;
-    transform.scale(viewScale, -viewScale);
+    public void mouseClicked(MouseEvent e) {
+      if (e.getClickCount() == 2) {
+        camera.follow(bodyAt(e.getX(), e.getY()));
+        repaint();
+      }
+    }
 
-    Shape line =
-        transform.createTransformedShape(new Line2D.Double(p1.x(), p1.y(), p2.x(), p2.y()));
-    g.setColor(color);
-    g.draw(line);
+    public void mouseWheelMoved(MouseWheelEvent e) {
+      synchronized (physicsLock) {
+        camera.zoomAt(
+            Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()),
+            e.getX(),
+            e.getY(),
+            getWidth(),
+            getHeight());
+      }
+      repaint();
+    }
   }
 }
@@ -0,0 +1,180 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+// The client end of a SimServer connection.  It keeps a list of display-only
+// bodies up to date from the server's frames, which SimCanvas can draw just like a
+// local simulation, and sends tether commands back.
+//
+// Run on its own, it prints how much of the stream arrives every second, which is
+// handy for checking a server without a display:
+//   java -cp build/TetherSim.jar SimClient [--connect HOST:PORT] [--command STATE]
+class SimClient {
+
+  private Socket socket;
+  private DataInputStream in;
+  private DataOutputStream out;
+
+  private List<PhysicsObject> physicsObjects = new ArrayList<>();
+  private Object physicsLock = new Object();
+  private StateDecoder decoder = new StateDecoder(physicsObjects, physicsLock);
+
+  // Called from the receiving thread after every frame.
+  private Runnable frameListener = null;
+
+  private volatile long framesReceived = 0;
+  private CountingInputStream counter;
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String address = "localhost:" + SimServer.DEFAULT_PORT;
+    TetherState command = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if (args[i].equals("--connect")) {
+        address = args[i + 1];
+      } else if (args[i].equals("--command")) {
+        command = TetherState.valueOf(args[i + 1]);
+      } else {
+        System.err.println("usage: SimClient [--connect HOST:PORT] [--command STATE]");
+        System.exit(2);
+      }
+    }
+
+    SimClient client = connect(address);
+    client.start();
+    if (command != null) {
+      client.sendTetherCommand(command);
+    }
+
+    long lastFrames = 0;
+    long lastBytes = 0;
+    for (; ; ) {
+      Thread.sleep(1000);
+      long frames = client.framesReceived;
+      long bytes = client.counter.count;
+      synchronized (client.physicsLock()) {
+        System.out.println(
+            (frames - lastFrames)
+                + " frames/s, "
+                + (bytes - lastBytes)
+                + " bytes/s, "
+                + client.physicsObjects().size()
+                + " bodies, tether "
+                + client.tetherState());
+      }
+      lastFrames = frames;
+      lastBytes = bytes;
+    }
+  }
+
+  // Takes an address of the form HOST:PORT.
+  public static SimClient connect(String address) throws IOException {
+    int colon = address.lastIndexOf(':');
+    if (colon < 0) {
+      throw new IOException("address needs a port: " + address);
+    }
+    return new SimClient(
+        new Socket(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1))));
+  }
+
+  private SimClient(Socket socket) throws IOException {
+    this.socket = socket;
+    socket.setTcpNoDelay(true);
+    counter = new CountingInputStream(socket.getInputStream());
+    in = new DataInputStream(new BufferedInputStream(counter));
+    out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+    if (in.readInt() != StateStream.MAGIC) {
+      socket.close();
+      throw new IOException("not a simulation server");
+    }
+  }
+
+  public List<PhysicsObject> physicsObjects() {
+    return physicsObjects;
+  }
+
+  public Object physicsLock() {
+    return physicsLock;
+  }
+
+  // The server's tether state as of the last frame.  Read it under the physics lock.
+  public TetherState tetherState() {
+    return decoder.tetherState();
+  }
+
+  // Indexes into physicsObjects().  Read it under the physics lock.
+  public TetherTable tetherTable() {
+    return decoder.tetherTable();
+  }
+
+  public StateDecoder decoder() {
+    return decoder;
+  }
+
+  public void setFrameListener(Runnable frameListener) {
+    this.frameListener = frameListener;
+  }
+
+  public void start() {
+    new Thread(() -> receive(), "Simulation Client").start();
+  }
+
+  public synchronized void sendTetherCommand(TetherState tetherState) {
+    try {
+      StateStream.writeTetherCommand(out, tetherState);
+    } catch (IOException exc) {
+      System.err.println("cannot send tether command: " + exc.getMessage());
+    }
+  }
+
+  private void receive() {
+    try {
+      for (; ; ) {
+        byte message = in.readByte();
+        if (message != StateStream.MSG_FRAME) {
+          throw new IOException("unexpected message " + message);
+        }
+        decoder.decode(in);
+        framesReceived++;
+
+        if (frameListener != null) {
+          frameListener.run();
+        }
+      }
+    } catch (IOException exc) {
+      System.err.println("lost connection to server: " + exc.getMessage());
+      System.exit(1);
+    }
+  }
+
+  private static class CountingInputStream extends FilterInputStream {
+    volatile long count = 0;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+  }
+}
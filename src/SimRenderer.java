@@ -0,0 +1,107 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.util.List;
+
+// Draws the world into any Graphics2D, whether that belongs to the on-screen
+// canvas or to an offscreen image.  A renderer holds no per-frame state, so one
+// renderer can be shared by several threads drawing different frames.
+class SimRenderer {
+
+  private static Color TETHER_COLOR = new Color(0.5f, 0.5f, 1.0f);
+
+  // Null until the background has loaded.
+  private volatile BufferedImage backgroundImage;
+
+  public SimRenderer(BufferedImage backgroundImage) {
+    this.backgroundImage = backgroundImage;
+  }
+
+  public void setBackgroundImage(BufferedImage backgroundImage) {
+    this.backgroundImage = backgroundImage;
+  }
+
+  public void drawBackground(Graphics2D g, int width, int height) {
+    BufferedImage backgroundImage = this.backgroundImage;
+    if (backgroundImage == null) {
+      g.setColor(Color.BLACK);
+      g.fillRect(0, 0, width, height);
+      return;
+    }
+
+    int xOff = (width - backgroundImage.getWidth()) / 2;
+    int yOff = (height - backgroundImage.getHeight()) / 2;
+
+    g.drawImage(backgroundImage, null, xOff, yOff);
+  }
+
+  // Bodies and tether segments outside the view are skipped before anything is
+  // transformed, so a zoomed-in view of a big scene only pays for what it shows.
+  public void drawPhysicsObjects(
+      Graphics2D g,
+      Camera.View view,
+      List<PhysicsObject> physicsObjects,
+      TetherTable tetherTable) {
+    drawImages(g, view, physicsObjects);
+    drawTethers(g, view, physicsObjects, tetherTable);
+  }
+
+  private void drawImages(Graphics2D g, Camera.View view, List<PhysicsObject> physicsObjects) {
+    for (PhysicsObject po : physicsObjects) {
+      if (po.image() != null && view.isCircleVisible(po.position(), po.radius())) {
+        drawImageInWorld(g, view, po.image(), po.position(), po.angleRad(), po.radius());
+      }
+    }
+  }
+
+  private void drawTethers(
+      Graphics2D g,
+      Camera.View view,
+      List<PhysicsObject> physicsObjects,
+      TetherTable tetherTable) {
+    g.setColor(TETHER_COLOR);
+    for (int c = 0; c < tetherTable.count; c++) {
+      if (tetherTable.broken[c]) {
+        continue;
+      }
+      Vec2D p1 = tetherTable.upperHookWorldCoords(c, physicsObjects);
+      Vec2D p2 = tetherTable.lowerHookWorldCoords(c, physicsObjects);
+      if (view.isLineVisible(p1, p2)) {
+        drawLineInWorld(g, view, p1, p2);
+      }
+    }
+  }
+
+  private void drawImageInWorld(
+      Graphics2D g,
+      Camera.View view,
+      BufferedImage image,
+      Vec2D position,
+      double angleRad,
+      double radius) {
+    AffineTransform transform = new AffineTransform();
+
+    transform.translate(view.screenX(position.x()), view.screenY(position.y()));
+    transform.scale(view.scale, view.scale);
+    transform.rotate(-angleRad);
+    transform.scale(2.0 * radius / image.getWidth(), 2.0 * radius / image.getHeight());
+    transform.translate(-image.getWidth() / 2, -image.getHeight() / 2);
+
+    BufferedImageOp imageOp = new AffineTransformOp(transform, AffineTransformOp.TYPE_BICUBIC);
+
+    g.drawImage(image, imageOp, 0, 0);
+  }
+
+  private void drawLineInWorld(Graphics2D g, Camera.View view, Vec2D p1, Vec2D p2) {
+    g.draw(
+        new Line2D.Double(
+            view.screenX(p1.x()),
+            view.screenY(p1.y()),
+            view.screenX(p2.x()),
+            view.screenY(p2.y())));
+  }
+}
@@ -0,0 +1,188 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Runs the canonical scene headless and streams it to any number of clients over
+// a local socket, taking tether commands from any of them.  See StateStream for
+// the wire format.
+//
+// Usage:
+//   java -cp build/TetherSim.jar SimServer [--port PORT]
+//
+// and then, for every viewer:
+//   java -jar build/TetherSim.jar --connect localhost:PORT
+class SimServer {
+
+  static final int DEFAULT_PORT = 7878;
+
+  private static final double TICK_SECS = 1.0 / 60.0;
+
+  private Simulation sim;
+
+  private StateSnapshot.Capturer capturer = new StateSnapshot.Capturer();
+
+  private List<ClientConnection> clients = new CopyOnWriteArrayList<>();
+
+  public static void main(String[] args) throws IOException {
+    int port = DEFAULT_PORT;
+    if (args.length == 2 && args[0].equals("--port")) {
+      port = Integer.parseInt(args[1]);
+    } else if (args.length != 0) {
+      System.err.println("usage: SimServer [--port PORT]");
+      System.exit(2);
+    }
+
+    new SimServer().serve(port);
+  }
+
+  public SimServer() {
+    // The server never draws, so its images only tag bodies with the image the
+    // clients should draw for them.
+    BufferedImage earthImage = AssetLoader.placeholder(Color.BLUE);
+    BufferedImage mainSatelliteImage = AssetLoader.placeholder(Color.GRAY);
+    BufferedImage secondarySatelliteImage = AssetLoader.placeholder(Color.GRAY);
+    capturer.setImageKind(earthImage, StateStream.IMAGE_EARTH);
+    capturer.setImageKind(mainSatelliteImage, StateStream.IMAGE_MAIN_SATELLITE);
+    capturer.setImageKind(secondarySatelliteImage, StateStream.IMAGE_SECONDARY_SATELLITE);
+
+    sim =
+        Scenes.orbitingTetheredSatellite(earthImage, mainSatelliteImage, secondarySatelliteImage);
+    sim.diagnostics().setListener(event -> System.err.println(event));
+    sim.setTetherBreakListener(tetherBreak -> System.err.println(tetherBreak));
+  }
+
+  public void serve(int port) throws IOException {
+    // Only local clients can connect.
+    ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    System.out.println("serving on " + serverSocket.getLocalSocketAddress());
+
+    new Thread(() -> run(), "Physics Simulator").start();
+
+    for (; ; ) {
+      Socket socket = serverSocket.accept();
+      socket.setTcpNoDelay(true);
+      ClientConnection client = new ClientConnection(socket);
+      clients.add(client);
+      client.start();
+      System.out.println("client connected from " + socket.getRemoteSocketAddress());
+    }
+  }
+
+  // Ticks in real time, like the window's deterministic mode, and publishes every
+  // tick to the clients.
+  private void run() {
+    final long targetMillisPerFrame = (long) (1000.0 * TICK_SECS);
+
+    for (; ; ) {
+      long startTimeMillis = System.currentTimeMillis();
+
+      sim.tick(TICK_SECS);
+
+      StateSnapshot snapshot = capturer.capture(sim);
+      for (ClientConnection client : clients) {
+        client.publish(snapshot);
+      }
+
+      long elapsedTimeMillis = System.currentTimeMillis() - startTimeMillis;
+      long sleepTimeMillis = targetMillisPerFrame - elapsedTimeMillis;
+      if (sleepTimeMillis > 0) {
+        try {
+          Thread.sleep(sleepTimeMillis);
+        } catch (InterruptedException exc) {
+        }
+      }
+    }
+  }
+
+  // Every client has a thread sending it frames and one reading its commands.  A
+  // client that can't keep up skips frames rather than holding up the others; the
+  // next frame it gets is encoded against the last one it was sent.
+  private class ClientConnection {
+    private Socket socket;
+    private StateEncoder encoder = new StateEncoder();
+
+    // The latest snapshot not yet sent, or null.
+    private StateSnapshot pending = null;
+    private boolean closed = false;
+
+    ClientConnection(Socket socket) {
+      this.socket = socket;
+    }
+
+    void start() {
+      new Thread(() -> send(), "Client Sender").start();
+      new Thread(() -> receive(), "Client Receiver").start();
+    }
+
+    synchronized void publish(StateSnapshot snapshot) {
+      pending = snapshot;
+      notifyAll();
+    }
+
+    private synchronized StateSnapshot takePending() throws InterruptedException {
+      while (pending == null && !closed) {
+        wait();
+      }
+      StateSnapshot snapshot = pending;
+      pending = null;
+      return snapshot;
+    }
+
+    private void send() {
+      try {
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeInt(StateStream.MAGIC);
+
+        for (StateSnapshot snapshot = takePending();
+            snapshot != null;
+            snapshot = takePending()) {
+          StateStream.writeFrame(out, snapshot, encoder);
+        }
+      } catch (IOException | InterruptedException exc) {
+        // The client has gone.
+      }
+      close();
+    }
+
+    private void receive() {
+      try {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        for (; ; ) {
+          byte message = in.readByte();
+          if (message != StateStream.MSG_TETHER_COMMAND) {
+            throw new IOException("unexpected message " + message);
+          }
+          sim.setTetherState(StateStream.readTetherState(in));
+        }
+      } catch (IOException exc) {
+        // The client has gone, or sent something it shouldn't have.
+      }
+      close();
+    }
+
+    private synchronized void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+
+      clients.remove(this);
+      try {
+        socket.close();
+      } catch (IOException exc) {
+      }
+      System.out.println("client disconnected from " + socket.getRemoteSocketAddress());
+    }
+  }
+}
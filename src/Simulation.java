@@ -0,0 +1,803 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+enum TetherState {
+  RETRACTING,
+  HOLDING,
+  EXTENDING,
+}
+
+// The physics engine, independent of any display.
+//
+// Given the same scene and the same sequence of tick lengths, a simulation always
+// produces the same trajectory: bodies and islands are visited in a fixed order,
+// and the engine sticks to StrictMath for anything that isn't exactly rounded.
+class Simulation {
+
+  static final double G = 1.0; // gravitational constant
+
+  static final double TETHER_LENGTH_MIN = 100.0;
+  static final double TETHER_SPOOL_RATE = 500.0;
+
+  // Tethers are paid out and reeled in at their spool end one piece at a time, so
+  // that their segments stay between half and twice the target length however long
+  // the tether is.
+  static final double TETHER_SEGMENT_LENGTH_TARGET = 250.0;
+  static final double TETHER_PIECE_MASS = 5;
+
+  // Tether pieces are point masses, so segments attach to their centers.
+  private static final Vec2D PIECE_HOOK = new Vec2D();
+
+  // COLLISION_ELASTICITY should be between 0 and a little less than 1 for realistic physics.
+  // 0 means collisions are completely inelastic; 1 means completely elastic.
+  // But stay a little bit under 1, because of energy leakage.
+  private static final double COLLISION_ELASTICITY = 0.95;
+
+  // How hard an inextensible tether rebounds.  Elastic tethers get their
+  // behavior from their own stiffness and damping instead.
+  private static final double TETHER_REBOUND_ELASTICITY = 1.0;
+
+  // Contacts closing slower than this don't bounce, but come to rest.  The closing
+  // speed is taken before the tick's forces, so bodies pressed together by gravity
+  // don't bounce however long the tick.
+  private static final double RESTING_CONTACT_SPEED = 10.0;
+
+  // How many passes the solver makes over an island's contacts, so that contacts
+  // sharing a body settle between them.
+  private static final int CONTACT_ITERATIONS = 4;
+
+  private static final double COEFFICIENT_OF_FRICTION = 0.1;
+
+  private List<PhysicsObject> physicsObjects = new ArrayList<>();
+
+  private TetherTable tetherTable = new TetherTable();
+
+  private GravitySource earthGravity;
+
+  private ForcePipeline forcePipeline = new ForcePipeline();
+
+  private IslandBuilder islandBuilder = new IslandBuilder();
+
+  private TetherPiecePool tetherPiecePool = new TetherPiecePool();
+
+  // Null unless Kepler coasting is enabled.
+  private KeplerCoasting keplerCoasting = null;
+
+  private Object physicsLock = new Object();
+
+  private volatile TetherState tetherState = TetherState.HOLDING;
+
+  // Null unless a controller is spooling the tethers instead of the tether state.
+  private TetherController tetherController = null;
+  private TetherProbe tetherProbe = new TetherProbe();
+
+  // Called from the physics thread when the tether reaches its minimum length or
+  // runs out of spool, and switches itself to HOLDING.
+  private Runnable tetherHoldListener = null;
+
+  // Called from the physics thread whenever a tether segment breaks.
+  private Consumer<TetherBreak> tetherBreakListener = null;
+
+  private double elapsedSecs = 0.0;
+
+  private ConservationDiagnostics diagnostics = new ConservationDiagnostics();
+
+  public List<PhysicsObject> physicsObjects() {
+    return physicsObjects;
+  }
+
+  public void addPhysicsObjects(List<PhysicsObject> objects) {
+    physicsObjects.addAll(objects);
+  }
+
+  public TetherTable tetherTable() {
+    return tetherTable;
+  }
+
+  // Tethers two bodies that have already been added, from a hook on the upper one
+  // to a hook on the lower one, with the hooks' current distance apart as the
+  // tether's length.  Returns the new segment's index in the tether table.
+  public int addTether(
+      PhysicsObject upper, Vec2D upperHook, PhysicsObject lower, Vec2D lowerHook) {
+    double length =
+        upper.localToWorldCoords(upperHook).distanceTo(lower.localToWorldCoords(lowerHook));
+    return tetherTable.add(
+        physicsObjects.indexOf(upper), upperHook, physicsObjects.indexOf(lower), lowerHook, length);
+  }
+
+  // Makes every segment of every tether out of the given material.  Segments made
+  // when a tether is resegmented take the material of the one they split from.
+  public void setTetherMaterial(TetherMaterial material) {
+    for (int c = 0; c < tetherTable.count; c++) {
+      tetherTable.setMaterial(c, material);
+    }
+  }
+
+  public TetherPiecePool tetherPiecePool() {
+    return tetherPiecePool;
+  }
+
+  public void setGravitySource(GravitySource earthGravity) {
+    this.earthGravity = earthGravity;
+  }
+
+  // Adds a force on top of the source's point-mass gravity.  Kepler orbits don't
+  // account for any other force, so this also stops Kepler coasting for good.
+  public void addForceModule(ForceModule module) {
+    forcePipeline.add(module);
+    setKeplerCoasting(false);
+  }
+
+  // Lets quiet tethered satellites coast along analytic Kepler orbits.  This trades
+  // exactness for speed, so it's off by default, and it has no effect once a force
+  // module has been added.
+  public void setKeplerCoasting(boolean enabled) {
+    enabled = enabled && !forcePipeline.hasPerturbations();
+    keplerCoasting = enabled ? new KeplerCoasting(earthGravity) : null;
+    if (!enabled) {
+      for (PhysicsObject po : physicsObjects) {
+        po.coasting = false;
+      }
+    }
+  }
+
+  public Object physicsLock() {
+    return physicsLock;
+  }
+
+  public TetherState tetherState() {
+    return tetherState;
+  }
+
+  public void setTetherState(TetherState tetherState) {
+    this.tetherState = tetherState;
+  }
+
+  // Hands the tethers over to a controller, which then decides the tether state
+  // every tick, or back to setTetherState if the controller is null.  A controller
+  // that keeps state between ticks should only drive one tether.
+  public void setTetherController(TetherController tetherController) {
+    this.tetherController = tetherController;
+    if (tetherController != null) {
+      tetherController.reset();
+    } else {
+      tetherState = TetherState.HOLDING;
+    }
+  }
+
+  public GravitySource gravitySource() {
+    return earthGravity;
+  }
+
+  public void setTetherHoldListener(Runnable tetherHoldListener) {
+    this.tetherHoldListener = tetherHoldListener;
+  }
+
+  public void setTetherBreakListener(Consumer<TetherBreak> tetherBreakListener) {
+    this.tetherBreakListener = tetherBreakListener;
+  }
+
+  public double elapsedSecs() {
+    return elapsedSecs;
+  }
+
+  public ConservationDiagnostics diagnostics() {
+    return diagnostics;
+  }
+
+  public void tick(double secs) {
+    // Spooling can add and remove tether pieces, so it has to happen before the
+    // world is split into islands.
+    spoolTether(secs);
+
+    List<Island> islands = islandBuilder.build(physicsObjects, tetherTable);
+
+    if (keplerCoasting != null) {
+      keplerCoasting.checkCoasting(islands, tetherState);
+    }
+
+    for (Island island : islands) {
+      for (ContactPair pair : island.contactPairs) {
+        prepareContact(pair);
+      }
+    }
+
+    applyForces(islands, secs);
+
+    solveIslands(islands, secs);
+    reportTetherBreaks(islands);
+
+    synchronized (physicsLock) {
+      applyMovement(islands, secs);
+    }
+
+    elapsedSecs += secs;
+
+    diagnostics.endUpdate(elapsedSecs);
+  }
+
+  private void applyForces(List<Island> islands, double secs) {
+    forcePipeline.apply(physicsObjects, earthGravity, secs);
+    diagnostics.addWork(forcePipeline.perturbationWork());
+
+    for (Island island : islands) {
+      if (island.coasting) {
+        keplerCoasting.applySourceReaction(island, secs);
+      }
+    }
+  }
+
+  private void spoolTether(double secs) {
+    boolean switchToHolding = false;
+    TetherState controlledState = TetherState.HOLDING;
+
+    for (int c = 0; c < tetherTable.count; c++) {
+      if (!tetherTable.spooled[c]) {
+        continue;
+      }
+      PhysicsObject spool = physicsObjects.get(tetherTable.upper[c]);
+
+      double spoolRate;
+      if (tetherController != null) {
+        tetherProbe.measure(
+            physicsObjects, tetherTable, c, earthGravity.physicsObject(), elapsedSecs, secs);
+        spoolRate =
+            Math.max(
+                -TETHER_SPOOL_RATE,
+                Math.min(TETHER_SPOOL_RATE, tetherController.spoolRate(tetherProbe)));
+      } else if (tetherState == TetherState.EXTENDING) {
+        spoolRate = TETHER_SPOOL_RATE;
+      } else if (tetherState == TetherState.RETRACTING) {
+        spoolRate = -TETHER_SPOOL_RATE;
+      } else {
+        spoolRate = 0.0;
+      }
+
+      if (spoolRate == 0.0) {
+        tetherTable.extendRate[c] = 0.0;
+        continue;
+      }
+
+      double spoolAmount = spoolRate * secs;
+      double newLength = tetherTable.restLength[c] + spoolAmount;
+
+      if (spoolRate < 0.0) {
+        double tetherLength = tetherLength(c) + spoolAmount;
+        if (tetherLength < TETHER_LENGTH_MIN) {
+          newLength += TETHER_LENGTH_MIN - tetherLength;
+          switchToHolding = true;
+        }
+      } else if (spool.tetherSpoolMass < TETHER_PIECE_MASS
+          && newLength > 2.0 * TETHER_SEGMENT_LENGTH_TARGET) {
+        // The spool has run out, so the tether is as long as it gets.
+        newLength = Math.max(tetherTable.restLength[c], 2.0 * TETHER_SEGMENT_LENGTH_TARGET);
+        switchToHolding = true;
+      }
+
+      tetherTable.extendRate[c] = (newLength - tetherTable.restLength[c]) / secs;
+      tetherTable.restLength[c] = newLength;
+
+      if (controlledState == TetherState.HOLDING && tetherTable.extendRate[c] != 0.0) {
+        controlledState =
+            tetherTable.extendRate[c] > 0.0 ? TetherState.EXTENDING : TetherState.RETRACTING;
+      }
+
+      synchronized (physicsLock) {
+        c = resegmentTether(c);
+      }
+    }
+
+    if (tetherController != null) {
+      // A controller keeps running at the limits, so there is nothing to switch.
+      tetherState = controlledState;
+    } else if (switchToHolding == true) {
+      tetherState = TetherState.HOLDING;
+      if (tetherHoldListener != null) {
+        tetherHoldListener.run();
+      }
+    }
+  }
+
+  // The velocity of the point of a body that is currently at the given position.
+  private static Vec2D velocityAt(PhysicsObject po, Vec2D point) {
+    return po.velocity()
+        .add(point.sub(po.position()).rotate(Math.PI / 2.0).scale(po.angularSpeed()));
+  }
+
+  // The length of the tether that starts with the given segment.
+  private double tetherLength(int c) {
+    double length = 0.0;
+    for (int d = c; d >= 0; d = tetherTable.next(d, physicsObjects)) {
+      length += tetherTable.restLength[d];
+    }
+    return length;
+  }
+
+  // Keeps the segment at the spool end of a tether near the target length, by
+  // paying a new piece off the spool when it gets too long, and winding the next
+  // piece back onto the spool when it gets too short.  Returns the spool segment's
+  // index, which adding and removing segments can change.
+  private int resegmentTether(int c) {
+    PhysicsObject source = earthGravity.physicsObject();
+    PhysicsObject spool = physicsObjects.get(tetherTable.upper[c]);
+    int belowIndex = tetherTable.lower[c];
+    PhysicsObject below = physicsObjects.get(belowIndex);
+
+    if (tetherTable.restLength[c] > 2.0 * TETHER_SEGMENT_LENGTH_TARGET
+        && spool.tetherSpoolMass >= TETHER_PIECE_MASS) {
+      // The new piece goes where the tether already is, between the spool's hook and
+      // the object below, and starts out moving as that stretch of tether does.
+      double upperLength = tetherTable.restLength[c] - TETHER_SEGMENT_LENGTH_TARGET;
+      double fraction = upperLength / tetherTable.restLength[c];
+
+      Vec2D hook = tetherTable.upperHookWorldCoords(c, physicsObjects);
+      Vec2D hookVelocity = velocityAt(spool, hook);
+      Vec2D belowHook = tetherTable.lowerHookWorldCoords(c, physicsObjects);
+      Vec2D belowHookVelocity = velocityAt(below, belowHook);
+
+      PhysicsObject piece =
+          tetherPiecePool.acquire(
+              hook.add(belowHook.sub(hook).scale(fraction)),
+              hookVelocity.add(belowHookVelocity.sub(hookVelocity).scale(fraction)),
+              TETHER_PIECE_MASS);
+
+      double energyBefore = ConservationDiagnostics.energy(spool, source);
+      moveSpoolMass(spool, piece, -piece.mass());
+      diagnostics.addWork(
+          ConservationDiagnostics.energy(spool, source)
+              + ConservationDiagnostics.energy(piece, source)
+              - energyBefore);
+
+      physicsObjects.add(piece);
+      int pieceIndex = physicsObjects.size() - 1;
+
+      int d =
+          tetherTable.add(
+              pieceIndex,
+              PIECE_HOOK,
+              belowIndex,
+              new Vec2D(tetherTable.lowerHookX[c], tetherTable.lowerHookY[c]),
+              TETHER_SEGMENT_LENGTH_TARGET);
+      if (d <= c) {
+        c++;
+      }
+      tetherTable.setMaterial(
+          d, tetherTable.stiffness[c], tetherTable.damping[c], tetherTable.breakingStrength[c]);
+      tetherTable.tension[d] = tetherTable.tension[c];
+
+      tetherTable.setLower(c, pieceIndex, PIECE_HOOK);
+      tetherTable.restLength[c] = upperLength;
+    } else if (tetherTable.restLength[c] < 0.5 * TETHER_SEGMENT_LENGTH_TARGET
+        && tetherTable.next(c, physicsObjects) >= 0
+        && tetherTable.segmentCountAt(belowIndex) == 2) {
+      int d = tetherTable.next(c, physicsObjects);
+
+      double energyBefore =
+          ConservationDiagnostics.energy(spool, source)
+              + ConservationDiagnostics.energy(below, source);
+      moveSpoolMass(spool, below, below.mass());
+      diagnostics.addWork(ConservationDiagnostics.energy(spool, source) - energyBefore);
+
+      tetherTable.restLength[c] = tetherTable.restLength[c] + tetherTable.restLength[d];
+      tetherTable.setLower(
+          c,
+          tetherTable.lower[d],
+          new Vec2D(tetherTable.lowerHookX[d], tetherTable.lowerHookY[d]));
+
+      tetherTable.remove(d);
+      if (d < c) {
+        c--;
+      }
+
+      physicsObjects.remove(belowIndex);
+      tetherTable.bodyRemoved(belowIndex);
+      tetherPiecePool.release(below);
+    }
+
+    return c;
+  }
+
+  // Moves a tether piece's mass onto the spool (positive massChange) or off it
+  // (negative massChange).  Winding a piece up or paying it out must keep the
+  // barycenter, momentum and angular momentum of the spool and piece together, so
+  // the spool's position, velocity and spin take up the difference.
+  //
+  // The wound tether is taken to be spread through the spool's body like the rest
+  // of its mass, so its moment of inertia goes up and down in step with its mass.
+  private void moveSpoolMass(PhysicsObject spool, PhysicsObject piece, double massChange) {
+    // Before a piece is paid out, its mass is still part of the spool's.
+    boolean windingUp = massChange > 0.0;
+
+    Vec2D weightedPosition = spool.position().scale(spool.mass());
+    Vec2D momentum = spool.momentum();
+    double angularMomentum = angularMomentumAboutOrigin(spool);
+
+    if (windingUp) {
+      weightedPosition = weightedPosition.add(piece.position().scale(piece.mass()));
+      momentum = momentum.add(piece.momentum());
+      angularMomentum += angularMomentumAboutOrigin(piece);
+    } else {
+      weightedPosition = weightedPosition.sub(piece.position().scale(piece.mass()));
+      momentum = momentum.sub(piece.momentum());
+      angularMomentum -= angularMomentumAboutOrigin(piece);
+    }
+
+    double oldMass = spool.mass;
+    spool.mass += massChange;
+    spool.tetherSpoolMass += massChange;
+    spool.momentOfInertia *= spool.mass / oldMass;
+
+    spool.position = weightedPosition.scale(1.0 / spool.mass());
+    spool.velocity = momentum.scale(1.0 / spool.mass());
+    spool.angularSpeed =
+        (angularMomentum - spool.mass() * spool.position().cross(spool.velocity()))
+            / spool.momentOfInertia();
+  }
+
+  private static double angularMomentumAboutOrigin(PhysicsObject po) {
+    return po.mass() * po.position().cross(po.velocity())
+        + po.momentOfInertia() * po.angularSpeed();
+  }
+
+  private void solveIslands(List<Island> islands, double secs) {
+    // Islands share no bodies, so they can be solved concurrently.
+    (islands.size() > 1 ? islands.parallelStream() : islands.stream())
+        .forEach(island -> solveIsland(island, secs));
+  }
+
+  // Takes broken segments out of the tether table, which leaves the islands'
+  // tether indices out of date.
+  private void reportTetherBreaks(List<Island> islands) {
+    synchronized (physicsLock) {
+      for (int c = tetherTable.count - 1; c >= 0; c--) {
+        if (tetherTable.broken[c]) {
+          tetherTable.remove(c);
+        }
+      }
+    }
+
+    for (Island island : islands) {
+      diagnostics.addWork(island.work);
+      for (TetherBreak tetherBreak : island.tetherBreaks) {
+        if (tetherBreakListener != null) {
+          tetherBreakListener.accept(tetherBreak);
+        }
+      }
+    }
+  }
+
+  private void solveIsland(Island island, double secs) {
+    if (island.coasting) {
+      return;
+    }
+
+    if (island.isIdle(secs)) {
+      // Its tethers are all slack, so their smoothed tension dies away.
+      for (int c : island.tethers) {
+        tetherTable.load[c] = 0.0;
+        tetherTable.filterLoad(c, secs);
+      }
+      return;
+    }
+
+    boolean impulsesApplied = false;
+
+    for (int c : island.tethers) {
+      impulsesApplied |= applyTetherRebound(c, island, secs);
+      tetherTable.filterLoad(c, secs);
+    }
+
+    impulsesApplied |= applyCollisions(island);
+
+    island.solved(impulsesApplied, secs);
+
+    if (keplerCoasting != null) {
+      keplerCoasting.considerCoasting(island, tetherState, secs);
+    }
+  }
+
+  // Returns true if an impulse was applied.
+  //
+  // Contacts are solved together, a few passes at a time, with each contact's
+  // total normal impulse kept from going negative, since contacts can only push.
+  // A contact that persists from the tick before starts out with the impulse it
+  // ended up with then, so a body resting on another, or a stack of them, starts
+  // close to the answer instead of from scratch.
+  private boolean applyCollisions(Island island) {
+    List<ContactPair> contacts = island.contactPairs;
+    if (contacts.isEmpty()) {
+      return false;
+    }
+
+    boolean impulsesApplied = false;
+
+    for (ContactPair pair : contacts) {
+      if (pair.touching && pair.persistent && pair.normalImpulse > 0.0) {
+        applyNormalImpulse(pair, pair.normalImpulse, island);
+        impulsesApplied = true;
+      } else {
+        pair.normalImpulse = 0.0;
+      }
+    }
+
+    for (int iteration = 0; iteration < CONTACT_ITERATIONS; iteration++) {
+      for (ContactPair pair : contacts) {
+        if (pair.touching) {
+          impulsesApplied |= solveContactNormal(pair, island);
+        }
+      }
+    }
+
+    for (ContactPair pair : contacts) {
+      if (pair.touching && pair.normalImpulse > 0.0) {
+        island.work += applyContactFriction(pair);
+      }
+    }
+
+    return impulsesApplied;
+  }
+
+  // Works out whether the pair overlaps, its normal, and how fast the solver should
+  // leave it separating: a contact that is closing fast enough bounces, and
+  // anything slower comes to rest.  Called before the tick's forces are applied.
+  private void prepareContact(ContactPair pair) {
+    PhysicsObject a = pair.a;
+    PhysicsObject b = pair.b;
+
+    double minDistance = a.radius() + b.radius();
+    Vec2D offset = b.position().sub(a.position());
+    pair.touching = offset.lengthSquared() < minDistance * minDistance;
+    if (!pair.touching) {
+      return;
+    }
+
+    pair.normal = offset.normalized();
+
+    double closingSpeed = -relativeNormalSpeed(pair);
+    pair.targetNormalSpeed =
+        closingSpeed > RESTING_CONTACT_SPEED
+            ? COLLISION_ELASTICITY * closingSpeed
+            : 0.0;
+  }
+
+  // Returns true if an impulse was applied.
+  private boolean solveContactNormal(ContactPair pair, Island island) {
+    double effectiveMass = 1.0 / (1.0 / pair.a.mass() + 1.0 / pair.b.mass());
+    double impulse =
+        Math.max(
+            pair.normalImpulse
+                + effectiveMass * (pair.targetNormalSpeed - relativeNormalSpeed(pair)),
+            0.0);
+
+    double deltaImpulse = impulse - pair.normalImpulse;
+    pair.normalImpulse = impulse;
+    if (deltaImpulse == 0.0) {
+      return false;
+    }
+
+    applyNormalImpulse(pair, deltaImpulse, island);
+    return true;
+  }
+
+  // How fast b is moving away from a along the contact normal.
+  private static double relativeNormalSpeed(ContactPair pair) {
+    return pair.b.velocity().sub(pair.a.velocity()).dot(pair.normal);
+  }
+
+  // Only a contact that bounces adds its work to the island's.  One at rest only
+  // takes out the speed that gravity gave it this tick, and the gravitational
+  // energy never counted that in the first place.
+  private static void applyNormalImpulse(
+      ContactPair pair, double impulseMagnitude, Island island) {
+    Vec2D impulse = pair.normal.scale(impulseMagnitude);
+    double work = applyImpulse(pair.b, impulse) + applyImpulse(pair.a, impulse.flip());
+    if (pair.targetNormalSpeed > 0.0) {
+      island.work += work;
+    }
+  }
+
+  // Applies the friction between the two bodies at their point of contact, limited
+  // by the normal impulse between them, and returns the work done.
+  private double applyContactFriction(ContactPair pair) {
+    PhysicsObject a = pair.a;
+    PhysicsObject b = pair.b;
+    Vec2D normal = pair.normal;
+    double impulseMagnitude = pair.normalImpulse;
+
+    Vec2D vAP = a.velocity().componentPerpendicularTo(normal);
+    Vec2D vBP = b.velocity().componentPerpendicularTo(normal);
+
+    Vec2D u = normal.rotate(Math.PI / 2.0).normalized();
+
+    Vec2D vEA = vAP.add(u.scale(a.radius() * a.angularSpeed()));
+    Vec2D vEB = vBP.sub(u.scale(b.radius() * b.angularSpeed()));
+
+    Vec2D velRelative = vEB.sub(vEA);
+    double velRelativeLen = velRelative.length();
+    if (velRelativeLen == 0.0) {
+      // The two surfaces are not sliding along each other, so there
+      // is no friction to apply.  In fact, we'd get NaN everywhere
+      // if we were to try, because the very next thing we do is divide
+      // by velRelativeLen.
+      return 0.0;
+    }
+
+    Vec2D frictionImpulseDir = velRelative.scale(1.0 / velRelativeLen);
+    double frictionImpulseMagnitudeMax =
+        Math.abs(
+            1.0
+                / ((1.0 / a.mass())
+                    + (1.0 / b.mass())
+                    + (StrictMath.pow(a.radius(), 2) / a.momentOfInertia())
+                    + (StrictMath.pow(b.radius(), 2) / b.momentOfInertia()))
+                * velRelativeLen);
+
+    double frictionImpulseMagnitude =
+        Math.min(COEFFICIENT_OF_FRICTION * impulseMagnitude, frictionImpulseMagnitudeMax);
+
+    Vec2D frictionImpulse = frictionImpulseDir.scale(frictionImpulseMagnitude);
+
+    return applyImpulseAt(a, frictionImpulse, a.position().add(normal.toLength(a.radius())))
+        + applyImpulseAt(b, frictionImpulse.flip(), b.position().sub(normal.toLength(b.radius())));
+  }
+
+  // Applies an impulse to a body's center, and returns the work it did: the impulse
+  // times the average of the velocities before and after.
+  private static double applyImpulse(PhysicsObject po, Vec2D impulse) {
+    Vec2D velocityBefore = po.velocity();
+    po.feelImpulse(impulse);
+    return 0.5 * impulse.dot(velocityBefore.add(po.velocity()));
+  }
+
+  // Applies an impulse at a point on a body, and returns the work it did.
+  private static double applyImpulseAt(PhysicsObject po, Vec2D impulse, Vec2D point) {
+    Vec2D velocityBefore = velocityAt(po, point);
+    po.feelImpulseAt(impulse, point);
+    return 0.5 * impulse.dot(velocityBefore.add(velocityAt(po, point)));
+  }
+
+  // Returns true if an impulse was applied.
+  //
+  // The load on the tether is the force it has to exert: the impulse that holds it
+  // together, spread over the tick.  If that's more than the tether can take, the
+  // tether breaks instead.
+  private boolean applyTetherRebound(int c, Island island, double secs) {
+    // A tether rebound happens when the two endpoints of the tether are
+    // farther apart than its maximum length *while* the endpoints are moving
+    // away from each other, so we check for that first.
+
+    PhysicsObject a = physicsObjects.get(tetherTable.upper[c]);
+    PhysicsObject b = physicsObjects.get(tetherTable.lower[c]);
+
+    Vec2D aHook = tetherTable.upperHookWorldCoords(c, physicsObjects);
+    Vec2D bHook = tetherTable.lowerHookWorldCoords(c, physicsObjects);
+
+    double restLength = tetherTable.restLength[c];
+
+    tetherTable.load[c] = 0.0;
+
+    if (aHook.distanceSquaredTo(bHook) <= restLength * restLength) {
+      // The two ends of the tether are not far enough apart to cause it to rebound.
+      return false;
+    }
+
+    Vec2D offset = bHook.sub(aHook);
+    Vec2D offsetUnit = offset.toLength(1.0);
+
+    Vec2D uA = aHook.sub(a.position()).rotate(Math.PI / 2.0);
+    Vec2D uB = bHook.sub(b.position()).rotate(Math.PI / 2.0);
+
+    Vec2D vHa = a.velocity().add(uA.scale(a.angularSpeed()));
+    Vec2D vHb = b.velocity().add(uB.scale(b.angularSpeed()));
+
+    double vHaP = vHa.dot(offsetUnit);
+    double vHbP = vHb.dot(offsetUnit);
+
+    // We factor the tether extension rate into the recession speed calculation.
+    // For example, if the tether is retracting, then that increases the effective
+    // recession speed of the two objects; we want them to rebound harder so that
+    // they will be "reeled in" by the retracting tether.
+    // Likewise, if the tether is extending, then that decreases the effective
+    // recession speed, and we don't need them to rebound as hard.
+    double effectiveRecessionSpeed = vHbP - vHaP - tetherTable.extendRate[c];
+
+    // How much the recession speed changes per unit of impulse along the tether.
+    double inverseEffectiveMass =
+        1.0 / a.mass()
+            + 1.0 / b.mass()
+            + StrictMath.pow(uA.dot(offsetUnit), 2.0) / a.momentOfInertia()
+            + StrictMath.pow(uB.dot(offsetUnit), 2.0) / b.momentOfInertia();
+
+    double impulseMagnitude;
+    double load;
+
+    if (tetherTable.stiffness[c] == Double.POSITIVE_INFINITY) {
+      // An inextensible tether stops the recession outright.
+      if (effectiveRecessionSpeed <= 0) {
+        return false;
+      }
+
+      // The load is what it takes to stop the recession, without the rebound.
+      double constraintImpulse = effectiveRecessionSpeed / inverseEffectiveMass;
+      load = constraintImpulse / secs;
+      impulseMagnitude = constraintImpulse * (1.0 + TETHER_REBOUND_ELASTICITY);
+    } else {
+      // An elastic tether pulls back in proportion to how far it is stretched,
+      // plus its damping.  It can only ever pull, never push.
+      double stiffness = tetherTable.stiffness[c];
+      double damping = tetherTable.damping[c];
+      double stretch = offset.length() - restLength;
+      double tension = stiffness * stretch + damping * effectiveRecessionSpeed;
+      if (tension <= 0.0) {
+        return false;
+      }
+
+      // The pull is worked out implicitly, from the stretch and recession at the
+      // end of the tick rather than the start, which keeps even a very stiff
+      // segment stable at any tick length.
+      impulseMagnitude =
+          (tension + stiffness * secs * effectiveRecessionSpeed)
+              * secs
+              / (1.0 + (damping * secs + stiffness * secs * secs) * inverseEffectiveMass);
+      if (impulseMagnitude <= 0.0) {
+        return false;
+      }
+      load = impulseMagnitude / secs;
+    }
+
+    tetherTable.load[c] = load;
+    if (load > tetherTable.breakingStrength[c]) {
+      tetherTable.broken[c] = true;
+      island.tetherBreaks.add(new TetherBreak(a, b, load));
+      return true;
+    }
+
+    Vec2D impulse = offsetUnit.scale(impulseMagnitude);
+
+    island.work += applyImpulseAt(a, impulse, aHook) + applyImpulseAt(b, impulse.flip(), bHook);
+
+    return true;
+  }
+
+  // Moves the bodies island by island, handing each island to the diagnostics once
+  // it has moved.  The source moves first, since coasting satellites and the
+  // diagnostics both need to know where it ends up.
+  private void applyMovement(List<Island> islands, double secs) {
+    PhysicsObject source = earthGravity.physicsObject();
+    source.move(secs);
+    diagnostics.beginUpdate(source);
+
+    for (Island island : islands) {
+      if (island.coasting) {
+        keplerCoasting.advance(island, secs);
+      } else {
+        for (PhysicsObject po : island.bodies) {
+          if (po != source) {
+            po.move(secs);
+          }
+        }
+      }
+
+      diagnostics.addIsland(island);
+    }
+  }
+}
+
+// A tether segment that broke, running from a hook on the upper object to a hook on
+// the lower one.
+class TetherBreak {
+  final PhysicsObject upper;
+  final PhysicsObject lower;
+  final double load;
+
+  TetherBreak(PhysicsObject upper, PhysicsObject lower, double load) {
+    this.upper = upper;
+    this.lower = lower;
+    this.load = load;
+  }
+
+  public String toString() {
+    return "tether broke under load " + load;
+  }
+}
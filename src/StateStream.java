@@ -0,0 +1,428 @@
+import java.awt.image.BufferedImage;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The wire format between SimServer and its clients.
+//
+// On connecting, the server sends MAGIC.  After that it sends one frame per tick,
+// and the client may send tether commands at any time.
+//
+// A frame holds the tether state and every body, in the server's order.  A body's
+// position and angle are quantized, and sent as the difference from what the same
+// client was last sent for it, as zig-zag varints.  Since the differences are taken
+// between quantized values, rounding never accumulates.  The rest of a body's
+// description is only sent the first time the client sees it.  A body missing
+// from a frame has gone, and if it comes back it is described again.
+//
+// After the bodies comes the tether table, as each segment's two body ids and
+// quantized hooks.  It only changes when a segment is added, removed or breaks,
+// so it is only sent when it differs from what the client was last sent.
+class StateStream {
+
+  static final int MAGIC = 0x54534d32; // "TSM2"
+
+  static final byte MSG_FRAME = 1;
+  static final byte MSG_TETHER_COMMAND = 2;
+
+  // The images a body can have, which the client loads for itself.
+  static final byte IMAGE_NONE = 0;
+  static final byte IMAGE_EARTH = 1;
+  static final byte IMAGE_MAIN_SATELLITE = 2;
+  static final byte IMAGE_SECONDARY_SATELLITE = 3;
+  static final int IMAGE_KIND_COUNT = 4;
+
+  static final double POSITION_QUANTUM = 0.01;
+  static final int ANGLE_STEPS = 1 << 16;
+
+  static final int FLAG_DESCRIPTION = 1;
+
+  static void writeVarLong(DataOutput out, long value) throws IOException {
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ((zigZag & ~0x7fL) != 0) {
+      out.writeByte((int) (zigZag & 0x7f) | 0x80);
+      zigZag >>>= 7;
+    }
+    out.writeByte((int) zigZag);
+  }
+
+  static long readVarLong(DataInput in) throws IOException {
+    long zigZag = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      zigZag |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+      }
+    }
+    throw new IOException("varint too long");
+  }
+
+  static long quantizePosition(double value) {
+    return Math.round(value / POSITION_QUANTUM);
+  }
+
+  static int quantizeAngle(double angleRad) {
+    return (int) Math.round(angleRad / (2.0 * Math.PI) * ANGLE_STEPS) & (ANGLE_STEPS - 1);
+  }
+
+  static void writeFrame(DataOutputStream out, StateSnapshot snapshot, StateEncoder encoder)
+      throws IOException {
+    out.writeByte(MSG_FRAME);
+    encoder.encode(out, snapshot);
+    out.flush();
+  }
+
+  static void writeTetherCommand(DataOutputStream out, TetherState tetherState)
+      throws IOException {
+    out.writeByte(MSG_TETHER_COMMAND);
+    out.writeByte(tetherState.ordinal());
+    out.flush();
+  }
+
+  static TetherState readTetherState(DataInput in) throws IOException {
+    int ordinal = in.readUnsignedByte();
+    if (ordinal >= TetherState.values().length) {
+      throw new IOException("bad tether state " + ordinal);
+    }
+    return TetherState.values()[ordinal];
+  }
+
+  static class Description {
+    final byte imageKind;
+    final double radius;
+
+    Description(byte imageKind, double radius) {
+      this.imageKind = imageKind;
+      this.radius = radius;
+    }
+
+    void write(DataOutput out) throws IOException {
+      out.writeByte(imageKind);
+      out.writeFloat((float) radius);
+    }
+
+    static Description read(DataInput in) throws IOException {
+      byte imageKind = in.readByte();
+      if (imageKind < 0 || imageKind >= IMAGE_KIND_COUNT) {
+        throw new IOException("bad image kind " + imageKind);
+      }
+      double radius = in.readFloat();
+      return new Description(imageKind, radius);
+    }
+  }
+}
+
+// The quantized state of every body and tether segment at the end of a tick,
+// shared by the encoders of all clients.
+class StateSnapshot {
+  final TetherState tetherState;
+  final int count;
+  final int[] ids;
+  final long[] x;
+  final long[] y;
+  final int[] angle;
+  final StateStream.Description[] descriptions;
+
+  // Each segment's upper and lower body ids, then its quantized upper and lower
+  // hooks, one after another.
+  final Tethers tethers;
+
+  static class Tethers {
+    final int count;
+    final int[] ids;
+    final long[] hooks;
+
+    Tethers(int count, int[] ids, long[] hooks) {
+      this.count = count;
+      this.ids = ids;
+      this.hooks = hooks;
+    }
+
+    boolean equals(Tethers other) {
+      return other != null
+          && Arrays.equals(ids, other.ids)
+          && Arrays.equals(hooks, other.hooks);
+    }
+  }
+
+  // Gives every body a stable id for as long as it lives, and knows which of
+  // the server's images stands for which image kind.
+  static class Capturer {
+    private Map<PhysicsObject, Integer> ids = new IdentityHashMap<>();
+    private Map<BufferedImage, Byte> imageKinds = new IdentityHashMap<>();
+
+    void setImageKind(BufferedImage image, byte imageKind) {
+      imageKinds.put(image, imageKind);
+    }
+
+    StateSnapshot capture(Simulation sim) {
+      return new StateSnapshot(
+          this, sim.tetherState(), sim.physicsObjects(), sim.tetherTable());
+    }
+
+    private int id(PhysicsObject po) {
+      return ids.computeIfAbsent(po, key -> ids.size());
+    }
+  }
+
+  private StateSnapshot(
+      Capturer capturer,
+      TetherState tetherState,
+      List<PhysicsObject> physicsObjects,
+      TetherTable tetherTable) {
+    this.tetherState = tetherState;
+    count = physicsObjects.size();
+    ids = new int[count];
+    x = new long[count];
+    y = new long[count];
+    angle = new int[count];
+    descriptions = new StateStream.Description[count];
+
+    for (int i = 0; i < count; i++) {
+      PhysicsObject po = physicsObjects.get(i);
+      ids[i] = capturer.id(po);
+      x[i] = StateStream.quantizePosition(po.position().x());
+      y[i] = StateStream.quantizePosition(po.position().y());
+      angle[i] = StateStream.quantizeAngle(po.angleRad());
+      descriptions[i] =
+          new StateStream.Description(
+              capturer.imageKinds.getOrDefault(po.image(), StateStream.IMAGE_NONE),
+              po.radius());
+    }
+
+    int tetherCount = 0;
+    for (int c = 0; c < tetherTable.count; c++) {
+      if (!tetherTable.broken[c]) {
+        tetherCount++;
+      }
+    }
+    int[] tetherIds = new int[2 * tetherCount];
+    long[] tetherHooks = new long[4 * tetherCount];
+    int t = 0;
+    for (int c = 0; c < tetherTable.count; c++) {
+      if (tetherTable.broken[c]) {
+        continue;
+      }
+      tetherIds[2 * t] = ids[tetherTable.upper[c]];
+      tetherIds[2 * t + 1] = ids[tetherTable.lower[c]];
+      tetherHooks[4 * t] = StateStream.quantizePosition(tetherTable.upperHookX[c]);
+      tetherHooks[4 * t + 1] = StateStream.quantizePosition(tetherTable.upperHookY[c]);
+      tetherHooks[4 * t + 2] = StateStream.quantizePosition(tetherTable.lowerHookX[c]);
+      tetherHooks[4 * t + 3] = StateStream.quantizePosition(tetherTable.lowerHookY[c]);
+      t++;
+    }
+    tethers = new Tethers(tetherCount, tetherIds, tetherHooks);
+  }
+}
+
+// Encodes frames for one client, remembering what it was last sent.
+class StateEncoder {
+
+  private static class Sent {
+    long x;
+    long y;
+    int angle;
+    int frame;
+  }
+
+  private Map<Integer, Sent> sent = new HashMap<>();
+  private StateSnapshot.Tethers sentTethers = null;
+  private int frame = 0;
+
+  void encode(DataOutput out, StateSnapshot snapshot) throws IOException {
+    frame++;
+
+    out.writeByte(snapshot.tetherState.ordinal());
+    StateStream.writeVarLong(out, snapshot.count);
+
+    for (int i = 0; i < snapshot.count; i++) {
+      Sent last = sent.get(snapshot.ids[i]);
+      boolean isNew = last == null;
+      if (isNew) {
+        last = new Sent();
+        sent.put(snapshot.ids[i], last);
+      }
+
+      StateStream.writeVarLong(out, snapshot.ids[i]);
+      out.writeByte(isNew ? StateStream.FLAG_DESCRIPTION : 0);
+      if (isNew) {
+        snapshot.descriptions[i].write(out);
+      }
+      StateStream.writeVarLong(out, snapshot.x[i] - last.x);
+      StateStream.writeVarLong(out, snapshot.y[i] - last.y);
+      StateStream.writeVarLong(out, (short) (snapshot.angle[i] - last.angle));
+
+      last.x = snapshot.x[i];
+      last.y = snapshot.y[i];
+      last.angle = snapshot.angle[i];
+      last.frame = frame;
+    }
+
+    // Forget bodies that have gone, so that they're described again if they return.
+    sent.values().removeIf(last -> last.frame != frame);
+
+    StateSnapshot.Tethers tethers = snapshot.tethers;
+    if (tethers.equals(sentTethers)) {
+      out.writeByte(0);
+      return;
+    }
+    out.writeByte(1);
+    StateStream.writeVarLong(out, tethers.count);
+    for (int t = 0; t < tethers.count; t++) {
+      StateStream.writeVarLong(out, tethers.ids[2 * t]);
+      StateStream.writeVarLong(out, tethers.ids[2 * t + 1]);
+      for (int k = 4 * t; k < 4 * t + 4; k++) {
+        StateStream.writeVarLong(out, tethers.hooks[k]);
+      }
+    }
+    sentTethers = tethers;
+  }
+}
+
+// Turns a client's stream of frames back into bodies and a tether table that
+// SimCanvas can draw.  They are only for display: the bodies have positions and
+// angles, and the tether segments have ends, but there is no physics.
+class StateDecoder {
+
+  private static class Received {
+    final PhysicsObject po = new PhysicsObject();
+    byte imageKind;
+    long x;
+    long y;
+    int angle;
+    int frame;
+  }
+
+  private Map<Integer, Received> received = new HashMap<>();
+  private int frame = 0;
+
+  // The tether table as last sent, by body id, since the ids it refers to can be
+  // at different indices from one frame to the next.
+  private int[] tetherIds = new int[0];
+  private long[] tetherHooks = new long[0];
+
+  private BufferedImage[] images = new BufferedImage[StateStream.IMAGE_KIND_COUNT];
+
+  private List<PhysicsObject> physicsObjects;
+  private TetherTable tetherTable = new TetherTable();
+  private Object physicsLock;
+
+  private TetherState tetherState = TetherState.HOLDING;
+
+  // Keeps the given list up to date, changing it only while holding the lock.
+  StateDecoder(List<PhysicsObject> physicsObjects, Object physicsLock) {
+    this.physicsObjects = physicsObjects;
+    this.physicsLock = physicsLock;
+  }
+
+  // Takes effect from the next frame.
+  void setImage(byte imageKind, BufferedImage image) {
+    synchronized (physicsLock) {
+      images[imageKind] = image;
+    }
+  }
+
+  TetherState tetherState() {
+    return tetherState;
+  }
+
+  // Indexes into the body list.  Read it under the physics lock.
+  TetherTable tetherTable() {
+    return tetherTable;
+  }
+
+  // Reads the rest of a frame, after its message type.
+  void decode(DataInputStream in) throws IOException {
+    frame++;
+
+    TetherState newTetherState = StateStream.readTetherState(in);
+    int count = (int) StateStream.readVarLong(in);
+
+    List<Received> bodies = new ArrayList<>(count);
+    Map<Integer, Integer> indices = new HashMap<>();
+
+    for (int i = 0; i < count; i++) {
+      int id = (int) StateStream.readVarLong(in);
+      int flags = in.readUnsignedByte();
+
+      Received body = received.get(id);
+      if ((flags & StateStream.FLAG_DESCRIPTION) != 0) {
+        StateStream.Description description = StateStream.Description.read(in);
+        body = new Received();
+        body.imageKind = description.imageKind;
+        body.po.radius = description.radius;
+        received.put(id, body);
+      } else if (body == null) {
+        throw new IOException("body " + id + " was never described");
+      }
+
+      body.x += StateStream.readVarLong(in);
+      body.y += StateStream.readVarLong(in);
+      body.angle += (int) StateStream.readVarLong(in);
+      body.angle &= StateStream.ANGLE_STEPS - 1;
+      body.frame = frame;
+      bodies.add(body);
+      indices.put(id, i);
+    }
+
+    if (in.readUnsignedByte() != 0) {
+      int tetherCount = (int) StateStream.readVarLong(in);
+      tetherIds = new int[2 * tetherCount];
+      tetherHooks = new long[4 * tetherCount];
+      for (int t = 0; t < tetherCount; t++) {
+        tetherIds[2 * t] = (int) StateStream.readVarLong(in);
+        tetherIds[2 * t + 1] = (int) StateStream.readVarLong(in);
+        for (int k = 4 * t; k < 4 * t + 4; k++) {
+          tetherHooks[k] = StateStream.readVarLong(in);
+        }
+      }
+    }
+
+    synchronized (physicsLock) {
+      tetherState = newTetherState;
+      physicsObjects.clear();
+
+      for (int i = 0; i < count; i++) {
+        Received body = bodies.get(i);
+
+        body.po.position =
+            new Vec2D(
+                body.x * StateStream.POSITION_QUANTUM, body.y * StateStream.POSITION_QUANTUM);
+        body.po.angleRad = 2.0 * Math.PI * body.angle / StateStream.ANGLE_STEPS;
+        body.po.image = images[body.imageKind];
+        physicsObjects.add(body.po);
+      }
+
+      tetherTable.clear();
+      for (int t = 0; t < tetherIds.length / 2; t++) {
+        Integer upper = indices.get(tetherIds[2 * t]);
+        Integer lower = indices.get(tetherIds[2 * t + 1]);
+        if (upper == null || lower == null) {
+          continue;
+        }
+        tetherTable.add(
+            upper,
+            new Vec2D(
+                tetherHooks[4 * t] * StateStream.POSITION_QUANTUM,
+                tetherHooks[4 * t + 1] * StateStream.POSITION_QUANTUM),
+            lower,
+            new Vec2D(
+                tetherHooks[4 * t + 2] * StateStream.POSITION_QUANTUM,
+                tetherHooks[4 * t + 3] * StateStream.POSITION_QUANTUM),
+            0.0);
+      }
+    }
+
+    // Forget bodies that have gone, just like the server does.
+    received.values().removeIf(body -> body.frame != frame);
+  }
+}
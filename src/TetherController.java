@@ -0,0 +1,192 @@
+import java.util.List;
+
+// Decides how fast each tether is spooled, in place of the tether buttons.
+//
+// A controller is called from the physics thread at the start of every tick, once
+// per spool, so it must be quick and must not allocate.
+interface TetherController {
+
+  // Returns the spool rate for this tick, in m/s: positive pays the tether out,
+  // negative reels it in, and 0 holds it.  The simulation limits the rate to what
+  // the spool can do, and stops it at the tether's minimum length and when the
+  // spool runs out.
+  double spoolRate(TetherProbe probe);
+
+  // Called when the controller takes over, so that it can forget any state left
+  // from an earlier run.
+  default void reset() {}
+
+  static TetherController constantRate(double spoolRate) {
+    return probe -> spoolRate;
+  }
+}
+
+// What a controller can measure about a tether, taken at the start of a tick.
+// One probe is reused for every measurement.
+class TetherProbe {
+
+  enum Quantity {
+    ELAPSED_SECS,
+    LENGTH,
+    TENSION,
+    LIBRATION_ANGLE,
+    SPOOL_MASS,
+  }
+
+  double elapsedSecs;
+  double tickSecs;
+
+  // The tether's unstretched length, from the spool to the body at its bottom.
+  double length;
+
+  // The tension in the segment leaving the spool, smoothed over the last couple of
+  // seconds, since the load on it from tick to tick comes in jerks.
+  double tension;
+
+  // The angle of the tether, from its bottom end to the spool, away from the
+  // local vertical through its midpoint as seen from the gravity source.
+  // Positive is anticlockwise, and 0 is the spool straight above the bottom body.
+  double librationAngleRad;
+
+  // How much tether is left on the spool, by mass.
+  double spoolMass;
+
+  double get(Quantity quantity) {
+    switch (quantity) {
+      case ELAPSED_SECS:
+        return elapsedSecs;
+      case LENGTH:
+        return length;
+      case TENSION:
+        return tension;
+      case LIBRATION_ANGLE:
+        return librationAngleRad;
+      case SPOOL_MASS:
+        return spoolMass;
+      default:
+        throw new IllegalArgumentException("unknown quantity " + quantity);
+    }
+  }
+
+  // Measures the tether that starts with the given spooled segment, without
+  // allocating.
+  void measure(
+      List<PhysicsObject> bodies,
+      TetherTable table,
+      int c,
+      PhysicsObject source,
+      double elapsedSecs,
+      double tickSecs) {
+    this.elapsedSecs = elapsedSecs;
+    this.tickSecs = tickSecs;
+
+    length = 0.0;
+    int bottomSegment = c;
+    for (int d = c; d >= 0; d = table.next(d, bodies)) {
+      length += table.restLength[d];
+      bottomSegment = d;
+    }
+
+    PhysicsObject spool = bodies.get(table.upper[c]);
+    PhysicsObject bottom = bodies.get(table.lower[bottomSegment]);
+
+    tension = table.tension[c];
+    spoolMass = spool.tetherSpoolMass;
+
+    double topX = hookX(spool, table.upperHookX[c], table.upperHookY[c]);
+    double topY = hookY(spool, table.upperHookX[c], table.upperHookY[c]);
+    double bottomX =
+        hookX(bottom, table.lowerHookX[bottomSegment], table.lowerHookY[bottomSegment]);
+    double bottomY =
+        hookY(bottom, table.lowerHookX[bottomSegment], table.lowerHookY[bottomSegment]);
+
+    double verticalX = 0.5 * (topX + bottomX) - source.position().x();
+    double verticalY = 0.5 * (topY + bottomY) - source.position().y();
+    double tetherX = topX - bottomX;
+    double tetherY = topY - bottomY;
+
+    librationAngleRad =
+        StrictMath.atan2(
+            verticalX * tetherY - verticalY * tetherX, verticalX * tetherX + verticalY * tetherY);
+  }
+
+  private static double hookX(PhysicsObject po, double hookX, double hookY) {
+    return po.position().x()
+        + StrictMath.cos(po.angleRad()) * hookX
+        - StrictMath.sin(po.angleRad()) * hookY;
+  }
+
+  private static double hookY(PhysicsObject po, double hookX, double hookY) {
+    return po.position().y()
+        + StrictMath.sin(po.angleRad()) * hookX
+        + StrictMath.cos(po.angleRad()) * hookY;
+  }
+}
+
+// Holds a measured quantity at a setpoint.  The spool rate is
+//   kp * e + ki * (integral of e) + kd * (rate of change of the quantity)
+// where e is the quantity minus the setpoint, so positive gains pay the tether out
+// when the quantity is too high.  Angles are compared the short way round.  The
+// rate of change is smoothed over a second or two, so that the jiggling of the
+// tether's pieces doesn't set the spool jerking back and forth.
+//
+// The integral only accumulates while the spool isn't already running flat out in
+// the same direction, so that it doesn't wind up.
+class PidTetherController implements TetherController {
+
+  private static final double DERIVATIVE_FILTER_SECS = 2.0;
+
+  private final TetherProbe.Quantity quantity;
+  private final double setpoint;
+  private final double kp;
+  private final double ki;
+  private final double kd;
+
+  private double integral = 0.0;
+  private double lastValue = Double.NaN;
+  private double derivative = 0.0;
+
+  PidTetherController(
+      TetherProbe.Quantity quantity, double setpoint, double kp, double ki, double kd) {
+    this.quantity = quantity;
+    this.setpoint = setpoint;
+    this.kp = kp;
+    this.ki = ki;
+    this.kd = kd;
+  }
+
+  public void reset() {
+    integral = 0.0;
+    lastValue = Double.NaN;
+    derivative = 0.0;
+  }
+
+  public double spoolRate(TetherProbe probe) {
+    double value = probe.get(quantity);
+    double error = difference(value, setpoint);
+    if (!Double.isNaN(lastValue)) {
+      derivative +=
+          (difference(value, lastValue) / probe.tickSecs - derivative)
+              * Math.min(1.0, probe.tickSecs / DERIVATIVE_FILTER_SECS);
+    }
+    lastValue = value;
+
+    double proportionalAndDerivative = kp * error + kd * derivative;
+
+    double newIntegral = integral + error * probe.tickSecs;
+    double spoolRate = proportionalAndDerivative + ki * newIntegral;
+    if (Math.abs(spoolRate) < Simulation.TETHER_SPOOL_RATE
+        || Math.signum(ki * error) != Math.signum(spoolRate)) {
+      integral = newIntegral;
+    }
+
+    return proportionalAndDerivative + ki * integral;
+  }
+
+  private double difference(double a, double b) {
+    if (quantity == TetherProbe.Quantity.LIBRATION_ANGLE) {
+      return Math.IEEEremainder(a - b, 2.0 * Math.PI);
+    }
+    return a - b;
+  }
+}
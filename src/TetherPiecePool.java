@@ -0,0 +1,39 @@
+import java.util.ArrayDeque;
+
+// Recycles tether pieces, so that paying a tether out and reeling it back in
+// doesn't keep allocating new bodies.
+class TetherPiecePool {
+  private ArrayDeque<PhysicsObject> free = new ArrayDeque<>();
+
+  // Makes sure that at least this many pieces can be acquired without allocating.
+  public void reserve(int count) {
+    while (free.size() < count) {
+      free.push(new PhysicsObject());
+    }
+  }
+
+  public PhysicsObject acquire(Vec2D position, Vec2D velocity, double mass) {
+    PhysicsObject piece = free.isEmpty() ? new PhysicsObject() : free.pop();
+
+    piece.position = position;
+    piece.velocity = velocity;
+    piece.mass = mass;
+    piece.angleRad = 0.0;
+    piece.angularSpeed = 0.0;
+    piece.momentOfInertia = 1.0;
+    piece.radius = 1.0;
+    piece.image = null;
+    piece.tetherPiece = true;
+    piece.tetherSpool = false;
+    piece.tetherSpoolMass = 0.0;
+    piece.coasting = false;
+    piece.island = null;
+    piece.contacts.clear();
+
+    return piece;
+  }
+
+  public void release(PhysicsObject piece) {
+    free.push(piece);
+  }
+}
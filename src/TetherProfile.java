@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// A script of tether controllers, each taking over from the one before when its
+// trigger is met: at a given time, or when a measured quantity rises above or
+// falls below a threshold.  Before the first trigger is met the tether is held.
+//
+// Profiles can be written as text, one step per line, in order:
+//
+//   # Deploy to 5 km, then damp the libration.
+//   at 0                 rate 200
+//   length > 5000        rate 0
+//   at 600               pid libration 0 0 0 250
+//
+// A trigger is "at SECS" or "QUANTITY > X" or "QUANTITY < X", and an action is
+// "rate M_PER_S" or "pid QUANTITY SETPOINT KP KI KD".  The quantities are time,
+// length, tension, libration and spool-mass.
+class TetherProfile implements TetherController {
+
+  private static final String[] QUANTITY_NAMES = {
+    "time", "length", "tension", "libration", "spool-mass",
+  };
+
+  private static class Step {
+    final TetherProbe.Quantity quantity;
+    final boolean above;
+    final double threshold;
+    final TetherController controller;
+
+    Step(
+        TetherProbe.Quantity quantity,
+        boolean above,
+        double threshold,
+        TetherController controller) {
+      this.quantity = quantity;
+      this.above = above;
+      this.threshold = threshold;
+      this.controller = controller;
+    }
+
+    boolean isTriggered(TetherProbe probe) {
+      double value = probe.get(quantity);
+      return above ? value >= threshold : value <= threshold;
+    }
+  }
+
+  private List<Step> steps = new ArrayList<>();
+
+  // The index of the step in control, or -1 before the first.
+  private int current = -1;
+
+  public TetherProfile at(double secs, TetherController controller) {
+    return whenAbove(TetherProbe.Quantity.ELAPSED_SECS, secs, controller);
+  }
+
+  public TetherProfile whenAbove(
+      TetherProbe.Quantity quantity, double threshold, TetherController controller) {
+    steps.add(new Step(quantity, true, threshold, controller));
+    return this;
+  }
+
+  public TetherProfile whenBelow(
+      TetherProbe.Quantity quantity, double threshold, TetherController controller) {
+    steps.add(new Step(quantity, false, threshold, controller));
+    return this;
+  }
+
+  public void reset() {
+    current = -1;
+  }
+
+  public double spoolRate(TetherProbe probe) {
+    while (current + 1 < steps.size() && steps.get(current + 1).isTriggered(probe)) {
+      current++;
+      steps.get(current).controller.reset();
+    }
+
+    return current < 0 ? 0.0 : steps.get(current).controller.spoolRate(probe);
+  }
+
+  // Throws IllegalArgumentException, naming the line, if the text isn't a profile.
+  public static TetherProfile parse(List<String> lines) {
+    TetherProfile profile = new TetherProfile();
+
+    for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+      String line = lines.get(lineNumber - 1);
+      int comment = line.indexOf('#');
+      if (comment >= 0) {
+        line = line.substring(0, comment);
+      }
+      String[] words = line.trim().split("\\s+");
+      if (words[0].isEmpty()) {
+        continue;
+      }
+
+      try {
+        int actionStart = words[0].equals("at") ? 2 : 3;
+        TetherController controller = parseAction(words, actionStart);
+        if (words[0].equals("at")) {
+          profile.at(Double.parseDouble(words[1]), controller);
+        } else if (words[1].equals(">")) {
+          profile.whenAbove(parseQuantity(words[0]), Double.parseDouble(words[2]), controller);
+        } else if (words[1].equals("<")) {
+          profile.whenBelow(parseQuantity(words[0]), Double.parseDouble(words[2]), controller);
+        } else {
+          throw new IllegalArgumentException("bad trigger");
+        }
+      } catch (IllegalArgumentException | IndexOutOfBoundsException exc) {
+        throw new IllegalArgumentException(
+            "line " + lineNumber + ": " + exc.getMessage() + ": " + lines.get(lineNumber - 1));
+      }
+    }
+
+    return profile;
+  }
+
+  private static TetherController parseAction(String[] words, int start) {
+    int argumentCount = words.length - start - 1;
+    if (words[start].equals("rate") && argumentCount == 1) {
+      return TetherController.constantRate(Double.parseDouble(words[start + 1]));
+    } else if (words[start].equals("pid") && argumentCount == 5) {
+      return new PidTetherController(
+          parseQuantity(words[start + 1]),
+          Double.parseDouble(words[start + 2]),
+          Double.parseDouble(words[start + 3]),
+          Double.parseDouble(words[start + 4]),
+          Double.parseDouble(words[start + 5]));
+    }
+    throw new IllegalArgumentException("bad action");
+  }
+
+  private static TetherProbe.Quantity parseQuantity(String name) {
+    for (int i = 0; i < QUANTITY_NAMES.length; i++) {
+      if (QUANTITY_NAMES[i].equals(name)) {
+        return TetherProbe.Quantity.values()[i];
+      }
+    }
+    throw new IllegalArgumentException("unknown quantity " + name);
+  }
+}
@@ -0,0 +1,185 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+// Runs the canonical scene headless, as fast as it will go, with its tether driven
+// by a profile (see TetherProfile), and prints how the tether behaves as CSV.
+//
+// Usage:
+//   java -cp build/TetherSim.jar TetherStudy --profile FILE [options]
+//
+// Options:
+//   --duration SECS         how much simulated time to run (default: 600)
+//   --tick-secs SECS        simulated time per tick (default: 1/60)
+//   --sample-secs SECS      simulated time between rows (default: 1)
+//   --kepler-coasting       run the engine with Kepler coasting enabled
+//   --j2 J2                 add the Earth's oblateness, with the given J2 coefficient
+//   --drag DENSITY:HEIGHT   add an exponential atmosphere, with the given density at
+//                           the surface and scale height
+//   --material K:C:B        make the tether elastic, with the given stiffness, damping
+//                           and breaking strength (default: inextensible, unbreakable)
+class TetherStudy {
+
+  private static String profileFile = null;
+  private static double durationSecs = 600.0;
+  private static double tickSecs = 1.0 / 60.0;
+  private static double sampleSecs = 1.0;
+  private static boolean keplerCoasting = false;
+  private static double j2 = 0.0;
+  private static double surfaceDensity = 0.0;
+  private static double scaleHeight = 0.0;
+  private static TetherMaterial material = TetherMaterial.INEXTENSIBLE;
+
+  public static void main(String[] args) throws IOException {
+    if (!parseOptions(args)) {
+      System.err.println("usage: TetherStudy --profile FILE [options]");
+      System.exit(2);
+    }
+
+    TetherProfile profile = null;
+    try {
+      profile = TetherProfile.parse(Files.readAllLines(Paths.get(profileFile)));
+    } catch (IllegalArgumentException exc) {
+      System.err.println(profileFile + ": " + exc.getMessage());
+      System.exit(2);
+    }
+
+    Simulation sim = Scenes.orbitingTetheredSatellite(null, null, null, material);
+    if (j2 != 0.0) {
+      sim.addForceModule(new J2Perturbation(j2));
+    }
+    if (surfaceDensity > 0.0) {
+      sim.addForceModule(
+          new ExponentialAtmosphereDrag(
+              surfaceDensity, scaleHeight, ExponentialAtmosphereDrag.SPHERE_DRAG_COEFFICIENT));
+    }
+    sim.setKeplerCoasting(keplerCoasting);
+    sim.setTetherBreakListener(
+        tetherBreak -> System.err.println("t=" + sim.elapsedSecs() + ": " + tetherBreak));
+    sim.setTetherController(profile);
+
+    long startTimeMillis = System.currentTimeMillis();
+
+    System.out.println("time,length,tension,libration,spool_rate,spool_mass,state");
+    TetherProbe probe = new TetherProbe();
+
+    int tickCount = (int) Math.round(durationSecs / tickSecs);
+    int ticksPerSample = Math.max(1, (int) Math.round(sampleSecs / tickSecs));
+
+    for (int tick = 1; tick <= tickCount; tick++) {
+      sim.tick(tickSecs);
+
+      if (tick % ticksPerSample != 0) {
+        continue;
+      }
+
+      // Segments move about in the table as the tether is resegmented, so the
+      // spooled one is looked for afresh every time.
+      TetherTable table = sim.tetherTable();
+      int spooled = -1;
+      for (int c = 0; c < table.count; c++) {
+        if (table.spooled[c]) {
+          spooled = c;
+        }
+      }
+
+      if (spooled >= 0) {
+        probe.measure(
+            sim.physicsObjects(),
+            table,
+            spooled,
+            sim.gravitySource().physicsObject(),
+            sim.elapsedSecs(),
+            tickSecs);
+        System.out.println(
+            sim.elapsedSecs()
+                + ","
+                + probe.length
+                + ","
+                + probe.tension
+                + ","
+                + probe.librationAngleRad
+                + ","
+                + table.extendRate[spooled]
+                + ","
+                + probe.spoolMass
+                + ","
+                + sim.tetherState());
+      }
+    }
+
+    System.err.println(
+        "simulated "
+            + durationSecs
+            + " s in "
+            + (System.currentTimeMillis() - startTimeMillis)
+            + " ms");
+  }
+
+  private static boolean parseOptions(String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--kepler-coasting")) {
+        keplerCoasting = true;
+        continue;
+      }
+      if (i + 1 == args.length) {
+        return false;
+      }
+      String option = args[i];
+      String value = args[++i];
+
+      try {
+        if (!parseOption(option, value)) {
+          return false;
+        }
+      } catch (NumberFormatException exc) {
+        System.err.println("bad value for " + option + ": " + value);
+        return false;
+      }
+    }
+    return profileFile != null && tickSecs > 0.0 && (surfaceDensity <= 0.0 || scaleHeight > 0.0);
+  }
+
+  private static boolean parseOption(String option, String value) {
+    switch (option) {
+      case "--profile":
+        profileFile = value;
+        break;
+      case "--duration":
+        durationSecs = Double.parseDouble(value);
+        break;
+      case "--tick-secs":
+        tickSecs = Double.parseDouble(value);
+        break;
+      case "--sample-secs":
+        sampleSecs = Double.parseDouble(value);
+        break;
+      case "--j2":
+        j2 = Double.parseDouble(value);
+        break;
+      case "--drag":
+        int colon = value.indexOf(':');
+        if (colon < 0) {
+          return false;
+        }
+        surfaceDensity = Double.parseDouble(value.substring(0, colon));
+        scaleHeight = Double.parseDouble(value.substring(colon + 1));
+        break;
+      case "--material":
+        String[] fields = value.split(":");
+        if (fields.length != 3) {
+          return false;
+        }
+        material =
+            new TetherMaterial(
+                Double.parseDouble(fields[0]),
+                Double.parseDouble(fields[1]),
+                Double.parseDouble(fields[2]));
+        break;
+      default:
+        return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,335 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Every tether segment in the world, as a table of constraints stored column by
+// column, so that the solver can run through them without chasing references.
+//
+// A segment runs from a hook on its upper body to a hook on its lower body.  Bodies
+// are referred to by their index in the simulation's body list, and hooks are
+// offsets in their body's own frame.  A body can have any number of segments
+// hanging from it or attached to it, so tethers can branch.
+//
+// Segments are kept in order of their upper body's index, and in the order they
+// were added after that, which is the order the solver visits them in.  Each
+// segment also knows where its neighbors are in the table, so that a tether can
+// be walked from end to end without searching it.  That is worked out again
+// whenever a segment is added, removed or re-hung, so the ends of a segment must
+// only ever be changed through the methods here.
+class TetherTable {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  // Roughly how long a stretch of loads the tension is averaged over.
+  private static final double TENSION_FILTER_SECS = 2.0;
+
+  int count = 0;
+
+  int[] upper = new int[INITIAL_CAPACITY];
+  int[] lower = new int[INITIAL_CAPACITY];
+
+  double[] upperHookX = new double[INITIAL_CAPACITY];
+  double[] upperHookY = new double[INITIAL_CAPACITY];
+  double[] lowerHookX = new double[INITIAL_CAPACITY];
+  double[] lowerHookY = new double[INITIAL_CAPACITY];
+
+  // The segment's unstretched length, and how fast that is changing because it is
+  // being spooled.
+  double[] restLength = new double[INITIAL_CAPACITY];
+  double[] extendRate = new double[INITIAL_CAPACITY];
+
+  // The segment's material.  An infinitely stiff segment is inextensible rope;
+  // otherwise it is a damped spring with the rest length.  A segment breaks when
+  // its load exceeds its breaking strength.
+  double[] stiffness = new double[INITIAL_CAPACITY];
+  double[] damping = new double[INITIAL_CAPACITY];
+  double[] breakingStrength = new double[INITIAL_CAPACITY];
+
+  // The load the segment carried the last time its island was solved, or 0 if it
+  // was slack.
+  double[] load = new double[INITIAL_CAPACITY];
+
+  // The load, smoothed over the last TENSION_FILTER_SECS or so.  An inextensible
+  // segment tugs in jerks, carrying a large load on one tick and none on the
+  // next few, and this is the steady pull that those add up to.
+  double[] tension = new double[INITIAL_CAPACITY];
+
+  // Whether the segment is paid out from a spool on its upper body.
+  boolean[] spooled = new boolean[INITIAL_CAPACITY];
+
+  // Set when the segment breaks while its island is being solved.  Broken
+  // segments are removed once every island has been solved.
+  boolean[] broken = new boolean[INITIAL_CAPACITY];
+
+  // The segments hanging from the segment's lower body, as a run of the table.
+  private int[] firstBelow = new int[INITIAL_CAPACITY];
+  private int[] belowCount = new int[INITIAL_CAPACITY];
+
+  // Every segment's index in the low half, below its lower body's index, in order,
+  // so that the segments ending at a body make up a run.
+  private long[] byLower = new long[INITIAL_CAPACITY];
+
+  // The segments ending at the segment's upper body, as a run of byLower.
+  private int[] aboveStart = new int[INITIAL_CAPACITY];
+  private int[] aboveCount = new int[INITIAL_CAPACITY];
+
+  // Adds an inextensible segment that isn't being spooled, and returns its index.
+  // Adding a segment can move others to later indices.
+  int add(int upperBody, Vec2D upperHook, int lowerBody, Vec2D lowerHook, double length) {
+    if (count == upper.length) {
+      grow();
+    }
+
+    int c = count;
+    while (c > 0 && upper[c - 1] > upperBody) {
+      c--;
+    }
+    shift(c, c + 1, count - c);
+    count++;
+
+    upper[c] = upperBody;
+    lower[c] = lowerBody;
+    upperHookX[c] = upperHook.x();
+    upperHookY[c] = upperHook.y();
+    lowerHookX[c] = lowerHook.x();
+    lowerHookY[c] = lowerHook.y();
+    restLength[c] = length;
+    extendRate[c] = 0.0;
+    stiffness[c] = Double.POSITIVE_INFINITY;
+    damping[c] = 0.0;
+    breakingStrength[c] = Double.POSITIVE_INFINITY;
+    load[c] = 0.0;
+    tension[c] = 0.0;
+    spooled[c] = false;
+    broken[c] = false;
+
+    link();
+    return c;
+  }
+
+  // Moves the lower end of a segment to a hook on another body.
+  void setLower(int c, int lowerBody, Vec2D lowerHook) {
+    lower[c] = lowerBody;
+    lowerHookX[c] = lowerHook.x();
+    lowerHookY[c] = lowerHook.y();
+    link();
+  }
+
+  void setMaterial(int c, double stiffness, double damping, double breakingStrength) {
+    this.stiffness[c] = stiffness;
+    this.damping[c] = damping;
+    this.breakingStrength[c] = breakingStrength;
+  }
+
+  // Called once a segment's load has been worked out for a tick.
+  void filterLoad(int c, double secs) {
+    tension[c] += (load[c] - tension[c]) * Math.min(1.0, secs / TENSION_FILTER_SECS);
+  }
+
+  void setMaterial(int c, TetherMaterial material) {
+    setMaterial(c, material.stiffness, material.damping, material.breakingStrength);
+  }
+
+  // Removes a segment, moving the ones after it down by one.
+  void remove(int c) {
+    shift(c + 1, c, count - c - 1);
+    count--;
+    link();
+  }
+
+  // Called when a body is taken out of the body list, after its segments have
+  // been removed, so that the bodies after it keep their segments.
+  void bodyRemoved(int body) {
+    for (int c = 0; c < count; c++) {
+      if (upper[c] > body) {
+        upper[c]--;
+      }
+      if (lower[c] > body) {
+        lower[c]--;
+      }
+    }
+    link();
+  }
+
+  void clear() {
+    count = 0;
+  }
+
+  // The segment that carries on from the lower end of the given one along the
+  // same tether, or -1 if the tether ends there.  A tether carries on through a
+  // tether piece with exactly one segment hanging from it.
+  int next(int c, List<PhysicsObject> bodies) {
+    int body = lower[c];
+    if (!bodies.get(body).tetherPiece) {
+      return -1;
+    }
+
+    int next = -1;
+    for (int d = firstBelow[c]; d < firstBelow[c] + belowCount[c]; d++) {
+      if (!broken[d]) {
+        if (next >= 0) {
+          return -1;
+        }
+        next = d;
+      }
+    }
+    return next;
+  }
+
+  // How many segments have an end at the given body.
+  int segmentCountAt(int body) {
+    return firstHangingFrom(body + 1)
+        - firstHangingFrom(body)
+        + firstEndingAt(body + 1)
+        - firstEndingAt(body);
+  }
+
+  // Whether a tether starts at the given segment, rather than carrying on from
+  // another one.
+  boolean isFirst(int c, List<PhysicsObject> bodies) {
+    for (int i = aboveStart[c]; i < aboveStart[c] + aboveCount[c]; i++) {
+      int d = (int) byLower[i];
+      if (!broken[d] && next(d, bodies) == c) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  Vec2D upperHookWorldCoords(int c, List<PhysicsObject> bodies) {
+    return bodies.get(upper[c]).localToWorldCoords(new Vec2D(upperHookX[c], upperHookY[c]));
+  }
+
+  Vec2D lowerHookWorldCoords(int c, List<PhysicsObject> bodies) {
+    return bodies.get(lower[c]).localToWorldCoords(new Vec2D(lowerHookX[c], lowerHookY[c]));
+  }
+
+  TetherTable copy() {
+    TetherTable copy = new TetherTable();
+    copy.count = count;
+    copy.upper = upper.clone();
+    copy.lower = lower.clone();
+    copy.upperHookX = upperHookX.clone();
+    copy.upperHookY = upperHookY.clone();
+    copy.lowerHookX = lowerHookX.clone();
+    copy.lowerHookY = lowerHookY.clone();
+    copy.restLength = restLength.clone();
+    copy.extendRate = extendRate.clone();
+    copy.stiffness = stiffness.clone();
+    copy.damping = damping.clone();
+    copy.breakingStrength = breakingStrength.clone();
+    copy.load = load.clone();
+    copy.tension = tension.clone();
+    copy.spooled = spooled.clone();
+    copy.broken = broken.clone();
+    copy.firstBelow = firstBelow.clone();
+    copy.belowCount = belowCount.clone();
+    copy.byLower = byLower.clone();
+    copy.aboveStart = aboveStart.clone();
+    copy.aboveCount = aboveCount.clone();
+    return copy;
+  }
+
+  // Works out every segment's neighbors afresh.
+  private void link() {
+    for (int c = 0; c < count; c++) {
+      byLower[c] = (long) lower[c] << 32 | c;
+    }
+    Arrays.sort(byLower, 0, count);
+
+    for (int c = 0; c < count; c++) {
+      firstBelow[c] = firstHangingFrom(lower[c]);
+      belowCount[c] = firstHangingFrom(lower[c] + 1) - firstBelow[c];
+      aboveStart[c] = firstEndingAt(upper[c]);
+      aboveCount[c] = firstEndingAt(upper[c] + 1) - aboveStart[c];
+    }
+  }
+
+  // The first segment hanging from the given body or a later one.
+  private int firstHangingFrom(int body) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (upper[middle] < body) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // Where in byLower the segments ending at the given body or a later one start.
+  private int firstEndingAt(int body) {
+    long key = (long) body << 32;
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (byLower[middle] < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private void shift(int from, int to, int length) {
+    System.arraycopy(upper, from, upper, to, length);
+    System.arraycopy(lower, from, lower, to, length);
+    System.arraycopy(upperHookX, from, upperHookX, to, length);
+    System.arraycopy(upperHookY, from, upperHookY, to, length);
+    System.arraycopy(lowerHookX, from, lowerHookX, to, length);
+    System.arraycopy(lowerHookY, from, lowerHookY, to, length);
+    System.arraycopy(restLength, from, restLength, to, length);
+    System.arraycopy(extendRate, from, extendRate, to, length);
+    System.arraycopy(stiffness, from, stiffness, to, length);
+    System.arraycopy(damping, from, damping, to, length);
+    System.arraycopy(breakingStrength, from, breakingStrength, to, length);
+    System.arraycopy(load, from, load, to, length);
+    System.arraycopy(tension, from, tension, to, length);
+    System.arraycopy(spooled, from, spooled, to, length);
+    System.arraycopy(broken, from, broken, to, length);
+  }
+
+  private void grow() {
+    int capacity = 2 * upper.length;
+    upper = Arrays.copyOf(upper, capacity);
+    lower = Arrays.copyOf(lower, capacity);
+    upperHookX = Arrays.copyOf(upperHookX, capacity);
+    upperHookY = Arrays.copyOf(upperHookY, capacity);
+    lowerHookX = Arrays.copyOf(lowerHookX, capacity);
+    lowerHookY = Arrays.copyOf(lowerHookY, capacity);
+    restLength = Arrays.copyOf(restLength, capacity);
+    extendRate = Arrays.copyOf(extendRate, capacity);
+    stiffness = Arrays.copyOf(stiffness, capacity);
+    damping = Arrays.copyOf(damping, capacity);
+    breakingStrength = Arrays.copyOf(breakingStrength, capacity);
+    load = Arrays.copyOf(load, capacity);
+    tension = Arrays.copyOf(tension, capacity);
+    spooled = Arrays.copyOf(spooled, capacity);
+    broken = Arrays.copyOf(broken, capacity);
+    firstBelow = Arrays.copyOf(firstBelow, capacity);
+    belowCount = Arrays.copyOf(belowCount, capacity);
+    byLower = Arrays.copyOf(byLower, capacity);
+    aboveStart = Arrays.copyOf(aboveStart, capacity);
+    aboveCount = Arrays.copyOf(aboveCount, capacity);
+  }
+}
+
+// What a tether is made of: see the material columns of TetherTable.
+class TetherMaterial {
+  static final TetherMaterial INEXTENSIBLE =
+      new TetherMaterial(Double.POSITIVE_INFINITY, 0.0, Double.POSITIVE_INFINITY);
+
+  final double stiffness;
+  final double damping;
+  final double breakingStrength;
+
+  TetherMaterial(double stiffness, double damping, double breakingStrength) {
+    this.stiffness = stiffness;
+    this.damping = damping;
+    this.breakingStrength = breakingStrength;
+  }
+}
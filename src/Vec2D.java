@@ -52,8 +52,8 @@ class Vec2D {
   }
 
   public Vec2D rotate(double radians) {
-    double sin = Math.sin(radians);
-    double cos = Math.cos(radians);
+    double sin = StrictMath.sin(radians);
+    double cos = StrictMath.cos(radians);
 
     return new Vec2D(x * cos - y * sin, x * sin + y * cos);
   }